@@ -0,0 +1,60 @@
+package card;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark measures shuffling, and compares dealing into lists with dealing into reusable
+ * buffers. Run it with the gc profiler (-prof gc): the buffered deals allocate nothing at steady
+ * state.
+ */
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DealBenchmark {
+
+  private final Deck deck = Deck.create(new SplittableRandom(42));
+  private final long[] masks = new long[4];
+  private final Card[][] hands = {new Card[17], new Card[17], new Card[17], new Card[3]};
+
+  @Benchmark
+  public Deck shuffle() {
+    deck.shuffle();
+    return deck;
+  }
+
+  @Benchmark
+  public List<List<Card>> dealLists() {
+    deck.reset();
+    return deck.dealCardForThreePlayer();
+  }
+
+  @Benchmark
+  public long[] dealMasks() {
+    deck.reset();
+    deck.dealCardForThreePlayer(masks);
+    return masks;
+  }
+
+  @Benchmark
+  public Card[][] dealArrays() {
+    deck.reset();
+    deck.dealCardForThreePlayer(hands);
+    return hands;
+  }
+}
@@ -0,0 +1,68 @@
+package game;
+
+import card.Card;
+import card.CardSet;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The class provides sample card plays for the benchmarks.
+ */
+
+final class BenchmarkPlays {
+
+  private static final List<CardSet> LEADS = MoveGenerator.legalMoves(CardSet.FULL, null);
+
+  private BenchmarkPlays() {}
+
+  /**
+   * Get a valid play of a given type.
+   * @param type The type of the play.
+   * @return The play.
+   */
+
+  static List<Card> validOf(CardsType type) {
+    for (CardSet play : LEADS) {
+      if (CardsType.determineType(play) == type) {
+        return play.toList();
+      }
+    }
+    throw new IllegalArgumentException("There is no play of type " + type + "!");
+  }
+
+  /**
+   * Get a valid play of a given size.
+   * @param size The size of the play.
+   * @return The play, or null if no play has that size.
+   */
+
+  static List<Card> validOf(int size) {
+    for (CardSet play : LEADS) {
+      if (play.size() == size) {
+        return play.toList();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Get a random invalid play of a given size.
+   * @param size The size of the play.
+   * @param random The generator that picks the cards.
+   * @return The play.
+   */
+
+  static List<Card> invalidOf(int size, SplittableRandom random) {
+    while (true) {
+      long mask = 0L;
+      while (Long.bitCount(mask) < size) {
+        mask |= 1L << random.nextInt(Card.COUNT);
+      }
+      CardSet play = CardSet.of(mask);
+      if (CardsType.determineType(play) == null) {
+        return play.toList();
+      }
+    }
+  }
+}
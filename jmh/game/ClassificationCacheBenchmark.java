@@ -0,0 +1,101 @@
+package game;
+
+import card.CardSet;
+import card.Deck;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark compares a shared ClassificationCache with the lookups it stands in front of: the
+ * code of a play by its card mask against ShapeTable, and HandDecomposer.minPlays with a private
+ * cache of 2^12 signatures against one that also shares a cache of 2^20. The plays are the leads
+ * of GreedyStrategy from 64K hands of 17 cards, so they repeat like the plays of a search do.
+ * Run it with -t to share the caches between threads. The statistics of the caches are printed
+ * at tear down.
+ */
+
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassificationCacheBenchmark {
+
+  private static final int HANDS = 1 << 16;
+
+  private final long[] plays = new long[HANDS];
+  private final long[] hands = new long[HANDS];
+  private final ClassificationCache codes = new ClassificationCache(16);
+  private final ClassificationCache decompositions = new ClassificationCache(20);
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Deck deck = Deck.create(new SplittableRandom(42));
+    GreedyStrategy greedy = new GreedyStrategy();
+    long[] dealt = new long[4];
+    for (int i = 0; i < HANDS; i++) {
+      deck.reset();
+      deck.dealCardForThreePlayer(dealt);
+      hands[i] = dealt[0];
+      plays[i] = greedy.choose(dealt[0], 0L, false);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.out.println("codes: " + codes);
+    System.out.println("decompositions: " + decompositions);
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    private final HandDecomposer own = new HandDecomposer(12);
+    private HandDecomposer shared;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp(ClassificationCacheBenchmark benchmark) {
+      shared = new HandDecomposer(12, benchmark.decompositions);
+      index = (int) Thread.currentThread().getId() * 7919;
+    }
+
+    int next() {
+      return index++ & (HANDS - 1);
+    }
+  }
+
+  @Benchmark
+  public int shapeTable(Cursor cursor) {
+    return ShapeTable.getInstance().lookup(CardSet.rankSignature(plays[cursor.next()]));
+  }
+
+  @Benchmark
+  public int cachedCode(Cursor cursor) {
+    return codes.classify(plays[cursor.next()]);
+  }
+
+  @Benchmark
+  public int minPlays(Cursor cursor) {
+    return cursor.own.minPlays(CardSet.rankSignature(hands[cursor.next()]));
+  }
+
+  @Benchmark
+  public int sharedMinPlays(Cursor cursor) {
+    return cursor.shared.minPlays(CardSet.rankSignature(hands[cursor.next()]));
+  }
+}
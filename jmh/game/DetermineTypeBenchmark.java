@@ -0,0 +1,76 @@
+package game;
+
+import card.Card;
+import card.CardSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark measures CardsType.determineType and the construction of PlayerImpl.Plays on valid
+ * and invalid plays of every size from 1 to 20. No valid play has 13, 17 or 19 cards, so the valid
+ * runs of those sizes measure an invalid play as well.
+ */
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DetermineTypeBenchmark {
+
+  @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10",
+          "11", "12", "13", "14", "15", "16", "17", "18", "19", "20"})
+  public int size;
+
+  @Param({"true", "false"})
+  public boolean valid;
+
+  private List<Card> play;
+  private CardSet playSet;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<Card> cards = valid ? BenchmarkPlays.validOf(size) : null;
+    if (cards == null) {
+      cards = BenchmarkPlays.invalidOf(size, new SplittableRandom(size));
+    }
+    play = new ArrayList<>(cards);
+    playSet = CardSet.of(cards);
+  }
+
+  @Benchmark
+  public CardsType determineType() {
+    return CardsType.determineType(play);
+  }
+
+  @Benchmark
+  public CardsType determineTypeOfCardSet() {
+    return CardsType.determineType(playSet);
+  }
+
+  @Benchmark
+  public Object newPlays() {
+    try {
+      return new PlayerImpl.Plays(play);
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package game;
+
+import card.CardSet;
+import card.Deck;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark measures HistogramEvaluator on the 17-card hands of random deals, and the same
+ * deals scored from their masks, rank signature included.
+ */
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HandEvaluatorBenchmark {
+
+  private static final int HANDS = 1 << 16;
+
+  private final HandEvaluator evaluator = new HistogramEvaluator();
+  private final long[] masks = new long[HANDS];
+  private final long[] signatures = new long[HANDS];
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Deck deck = Deck.create(new SplittableRandom(42));
+    long[] dealt = new long[4];
+    for (int i = 0; i < HANDS; i++) {
+      deck.reset();
+      deck.dealCardForThreePlayer(dealt);
+      masks[i] = dealt[0];
+      signatures[i] = CardSet.rankSignature(dealt[0]);
+    }
+  }
+
+  @Benchmark
+  public int evaluate() {
+    int i = next;
+    next = (i + 1) & (HANDS - 1);
+    return evaluator.evaluate(signatures[i]);
+  }
+
+  @Benchmark
+  public int evaluateMask() {
+    int i = next;
+    next = (i + 1) & (HANDS - 1);
+    return evaluator.evaluate(CardSet.rankSignature(masks[i]));
+  }
+}
@@ -0,0 +1,89 @@
+package game;
+
+import card.Card;
+import card.CardSet;
+import card.Deck;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark compares the scalar and the vectorized HandFeatures over batches of 4096 hands of
+ * 17 cards, and the rank histograms of the same hands counted one card at a time from their card
+ * lists, as HandClassifier.histogram() does. The scores are per hand. The fork runs with the
+ * Vector API module, so both implementations can be measured.
+ */
+
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HandFeaturesBenchmark {
+
+  private static final int BATCH = 4096;
+
+  @Param({"scalar", "vector"})
+  public String implementation;
+
+  private final long[] masks = new long[BATCH];
+  private final long[] out = new long[BATCH];
+  private final int[] counts = new int[HandClassifier.RANKS];
+  private final List<List<Card>> lists = new ArrayList<>();
+  private HandFeatures features;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    features = implementation.equals("vector") ? VectorHandFeatures.INSTANCE
+            : ScalarHandFeatures.INSTANCE;
+    Deck deck = Deck.create(new SplittableRandom(42));
+    long[] dealt = new long[4];
+    for (int i = 0; i < BATCH; i++) {
+      deck.reset();
+      deck.dealCardForThreePlayer(dealt);
+      masks[i] = dealt[0];
+      lists.add(CardSet.of(dealt[0]).toList());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public long[] signatures() {
+    features.signatures(masks, out, BATCH);
+    return out;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public long[] features() {
+    features.features(masks, out, BATCH);
+    return out;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int listHistograms() {
+    int sum = 0;
+    for (int i = 0; i < BATCH; i++) {
+      sum += HandClassifier.histogram(lists.get(i), counts)[0];
+    }
+    return sum;
+  }
+}
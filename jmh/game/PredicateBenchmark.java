@@ -0,0 +1,139 @@
+package game;
+
+import card.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark measures every CardsType.isXxx predicate on a valid play of its own type.
+ */
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PredicateBenchmark {
+
+  private List<Card> solo;
+  private List<Card> pair;
+  private List<Card> trio;
+  private List<Card> bomb;
+  private List<Card> rocket;
+  private List<Card> soloChain;
+  private List<Card> pairSisters;
+  private List<Card> trioChain;
+  private List<Card> trioKicksSolo;
+  private List<Card> trioKicksPair;
+  private List<Card> airplaneKicksSolo;
+  private List<Card> airplaneKicksPair;
+  private List<Card> fourKicksDualSolo;
+  private List<Card> fourKicksDualPair;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    solo = play(CardsType.Solo);
+    pair = play(CardsType.Pair);
+    trio = play(CardsType.Trio);
+    bomb = play(CardsType.Bomb);
+    rocket = play(CardsType.Rocket);
+    soloChain = play(CardsType.SoloChain);
+    pairSisters = play(CardsType.PairSisters);
+    trioChain = play(CardsType.TrioChain);
+    trioKicksSolo = play(CardsType.TrioKicksSolo);
+    trioKicksPair = play(CardsType.TrioKicksPair);
+    airplaneKicksSolo = play(CardsType.AirplaneKicksSolo);
+    airplaneKicksPair = play(CardsType.AirplaneKicksPair);
+    fourKicksDualSolo = play(CardsType.FourKicksDualSolo);
+    fourKicksDualPair = play(CardsType.FourKicksDualPair);
+  }
+
+  private static List<Card> play(CardsType type) {
+    return new ArrayList<>(BenchmarkPlays.validOf(type));
+  }
+
+  @Benchmark
+  public boolean isSolo() {
+    return CardsType.isSolo(solo);
+  }
+
+  @Benchmark
+  public boolean isPair() {
+    return CardsType.isPair(pair);
+  }
+
+  @Benchmark
+  public boolean isTrio() {
+    return CardsType.isTrio(trio);
+  }
+
+  @Benchmark
+  public boolean isBomb() {
+    return CardsType.isBomb(bomb);
+  }
+
+  @Benchmark
+  public boolean isRocket() {
+    return CardsType.isRocket(rocket);
+  }
+
+  @Benchmark
+  public boolean isSoloChain() {
+    return CardsType.isSoloChain(soloChain);
+  }
+
+  @Benchmark
+  public boolean isPairSisters() {
+    return CardsType.isPairSisters(pairSisters);
+  }
+
+  @Benchmark
+  public boolean isTrioChain() {
+    return CardsType.isTrioChain(trioChain);
+  }
+
+  @Benchmark
+  public boolean isTrioKicksSolo() {
+    return CardsType.isTrioKicksSolo(trioKicksSolo);
+  }
+
+  @Benchmark
+  public boolean isTrioKicksPair() {
+    return CardsType.isTrioKicksPair(trioKicksPair);
+  }
+
+  @Benchmark
+  public boolean isAirplaneKicksSolo() {
+    return CardsType.isAirplaneKicksSolo(airplaneKicksSolo);
+  }
+
+  @Benchmark
+  public boolean isAirplaneKicksPair() {
+    return CardsType.isAirplaneKicksPair(airplaneKicksPair);
+  }
+
+  @Benchmark
+  public boolean isFourKicksDualSolo() {
+    return CardsType.isFourKicksDualSolo(fourKicksDualSolo);
+  }
+
+  @Benchmark
+  public boolean isFourKicksDualPair() {
+    return CardsType.isFourKicksDualPair(fourKicksDualPair);
+  }
+}
@@ -0,0 +1,76 @@
+package game;
+
+import card.CardSet;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark compares the ShapeTable lookup with the HandClassifier it is built from, and
+ * measures how long the table takes to build. The size of the table is printed at set up.
+ */
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ShapeTableBenchmark {
+
+  private static final int PLAYS = 1 << 12;
+
+  private final long[] signatures = new long[PLAYS];
+  private final int[] sizes = new int[PLAYS];
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ShapeTable table = ShapeTable.getInstance();
+    System.out.println("ShapeTable: " + table.size() + " shapes in " + table.capacity()
+            + " slots, " + table.capacity() * (Long.BYTES + Integer.BYTES) + " bytes");
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < PLAYS; i++) {
+      long mask = random.nextLong() & random.nextLong() & random.nextLong() & CardSet.FULL_MASK;
+      int rank = random.nextInt(13);
+      mask &= 0xFFFFL << (rank << 2);
+      CardSet play = CardSet.of(mask);
+      signatures[i] = play.rankSignature();
+      sizes[i] = play.size();
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public int lookup() {
+    int i = index++ & (PLAYS - 1);
+    return ShapeTable.getInstance().lookup(signatures[i]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public int classify() {
+    int i = index++ & (PLAYS - 1);
+    return HandClassifier.classify(signatures[i], sizes[i]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 20)
+  public ShapeTable build() {
+    return ShapeTable.build();
+  }
+}
@@ -0,0 +1,80 @@
+package metrics;
+
+import card.CardSet;
+import game.CardsType;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmark measures the cost of recording a metric: a counter increment, a histogram record,
+ * a sampled timing, and CardsType.determineType() on a pair with metrics enabled and disabled.
+ */
+
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+
+  @Param({"true", "false"})
+  public boolean enabled;
+
+  private final Counter counter = new Counter();
+  private final LatencyHistogram histogram = new LatencyHistogram();
+  private final long[] values = new long[1024];
+  private final CardSet pair = CardSet.of(0b11L);
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextLong(100_000_000L);
+    }
+    Metrics.setEnabled(enabled);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    Metrics.setEnabled(false);
+  }
+
+  @Benchmark
+  public void increment() {
+    counter.increment();
+  }
+
+  @Benchmark
+  public void record() {
+    int i = next;
+    next = (i + 1) & (values.length - 1);
+    histogram.record(values[i]);
+  }
+
+  @Benchmark
+  public void sample() {
+    histogram.recordSince(Metrics.sample());
+  }
+
+  @Benchmark
+  public CardsType determineType() {
+    return CardsType.determineType(pair);
+  }
+}
@@ -4,16 +4,73 @@ package card;
  * The class implements the basic unit of the game: card
  * A class can be compared to other card with specific order in the game. Therefore it is a
  * Comparable objects.
+ * There are exactly 54 cards, and each of them is represented by a single canonical instance that
+ * is obtained from Card.of() or Card.ofOrdinal(). Each card carries an ordinal from 0 to 53.
+ * Regular cards are numbered rank by rank, (rank * 4 + suit) in the order of the enums, followed by
+ * the lower Joker (52) and the higher Joker (53). The ordinal order is the order of the game, so
+ * the ordinal also serves as the sort key of the card.
  */
 
 public class Card implements Comparable<Card> {
 
+  public static final int COUNT = 54;
+
+  private static final Card[] CARDS = new Card[COUNT];
+
+  static {
+    for (Suit suit : Suit.values()) {
+      if (suit == Suit.Joker) {
+        continue;
+      }
+      for (Rank rank : Rank.values()) {
+        if (rank == Rank.LowerJoker || rank == Rank.HigherJoker) {
+          continue;
+        }
+        int ordinal = rank.ordinal() * 4 + suit.ordinal();
+        CARDS[ordinal] = new Card(suit, rank, ordinal);
+      }
+    }
+    CARDS[52] = new Card(Suit.Joker, Rank.LowerJoker, 52);
+    CARDS[53] = new Card(Suit.Joker, Rank.HigherJoker, 53);
+  }
+
   private final Suit suit;
   private final Rank rank;
+  private final int ordinal;
 
-  public Card(Suit suit, Rank rank) { // shall we guard for invalid combination?
+  private Card(Suit suit, Rank rank, int ordinal) {
     this.suit = suit;
     this.rank = rank;
+    this.ordinal = ordinal;
+  }
+
+  /**
+   * Get the canonical card of a given suit and rank.
+   * @param suit The suit of the card.
+   * @param rank The rank of the card.
+   * @return The card.
+   */
+
+  public static Card of(Suit suit, Rank rank) {
+    boolean isJokerRank = rank == Rank.LowerJoker || rank == Rank.HigherJoker;
+    if ((suit == Suit.Joker) != isJokerRank) {
+      throw new IllegalArgumentException("There is no card " + suit + "_" + rank.name() + "!");
+    }
+    return CARDS[isJokerRank ? 52 + rank.ordinal() - Rank.LowerJoker.ordinal()
+            : rank.ordinal() * 4 + suit.ordinal()];
+  }
+
+  /**
+   * Get the canonical card of a given ordinal.
+   * @param ordinal The ordinal of the card, from 0 to 53.
+   * @return The card.
+   */
+
+  public static Card ofOrdinal(int ordinal) {
+    if (ordinal < 0 || ordinal >= COUNT) {
+      throw new IllegalArgumentException("There is no card of ordinal " + ordinal + "!");
+    }
+    return CARDS[ordinal];
   }
 
   /**
@@ -37,6 +94,13 @@ public class Card implements Comparable<Card> {
 
   public boolean isJoker() { return suit == Suit.Joker; }
 
+  /**
+   * Get the ordinal of card.
+   * @return Card's ordinal, from 0 to 53.
+   */
+
+  public int ordinal() { return ordinal; }
+
   /**
    * Provides a human readable representation of the Card:
    * "Suit_Rank".
@@ -48,22 +112,28 @@ public class Card implements Comparable<Card> {
     return suit.toString() + "_" + rank.name();
   }
 
+  /**
+   * Cards are canonical, so two cards are equal only if they are the same instance.
+   * @param o Other object.
+   * @return True if o is this card.
+   */
+
+  @Override
+  public boolean equals(Object o) { return this == o; }
+
+  @Override
+  public int hashCode() { return ordinal; }
+
   /**
    * A compare method for other Card.
    * @param o Other card.
    * @return The compare result. -1 -> current card is smaller
    *                              1 -> other card is smaller
-   *                              0 -> Impossible situation.
+   *                              0 -> The two cards are the same card.
    */
 
   @Override
   public int compareTo(Card o) {
-    if (rank.getRank() < o.rank.getRank()) {
-      return -1;
-    } else if (rank.getRank() > o.rank.getRank()) {
-      return 1;
-    } else {
-      return Integer.compare(suit.getRank(), o.suit.getRank());
-    }
+    return Integer.compare(ordinal, o.ordinal);
   }
 }
@@ -0,0 +1,189 @@
+package card;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The class implements an immutable set of cards packed into a single long.
+ * Each of the 54 cards owns the bit of its ordinal. Regular cards are laid out rank by rank, four
+ * bits per rank, and the lower Joker and the higher Joker own bit 52 and bit 53. Since the ordinal
+ * order equals the order of the cards, iterating a CardSet visits its cards in ascending order.
+ */
+
+public final class CardSet implements Iterable<Card> {
+
+  public static final int DECK_SIZE = Card.COUNT;
+  public static final long FULL_MASK = (1L << DECK_SIZE) - 1;
+  public static final CardSet EMPTY = new CardSet(0L);
+  public static final CardSet FULL = new CardSet(FULL_MASK);
+
+  private static final int LOWER_JOKER_BIT = 52;
+  private static final long REGULAR_MASK = (1L << LOWER_JOKER_BIT) - 1;
+
+  private final long mask;
+
+  private CardSet(long mask) {
+    this.mask = mask;
+  }
+
+  /**
+   * Get the CardSet of a given bit mask.
+   * @param mask The bit mask, only the lower 54 bits may be set.
+   * @return The CardSet.
+   */
+
+  public static CardSet of(long mask) {
+    if ((mask & ~FULL_MASK) != 0) {
+      throw new IllegalArgumentException("The mask contains bits that are not cards!");
+    }
+    return mask == 0 ? EMPTY : new CardSet(mask);
+  }
+
+  /**
+   * Get the CardSet of a given list of cards.
+   * @param cards The given cards.
+   * @return The CardSet.
+   */
+
+  public static CardSet of(List<Card> cards) {
+    long mask = 0L;
+    for (int i = 0, n = cards.size(); i < n; i++) {
+      long bit = 1L << cards.get(i).ordinal();
+      if ((mask & bit) != 0) {
+        throw new IllegalArgumentException("The given cards contain duplicates!");
+      }
+      mask |= bit;
+    }
+    return of(mask);
+  }
+
+  /**
+   * Get the bits of all cards of a given rank.
+   * @param rank The given rank.
+   * @return A mask that has exactly the bits of that rank set.
+   */
+
+  public static long rankMask(Rank rank) {
+    return rankMask(rank.ordinal());
+  }
+
+  /**
+   * Get the bits of all cards of a given rank.
+   * @param rank The ordinal of the given rank.
+   * @return A mask that has exactly the bits of that rank set.
+   */
+
+  public static long rankMask(int rank) {
+    return rank < 13 ? 0xFL << (rank << 2) : 1L << (LOWER_JOKER_BIT + rank - 13);
+  }
+
+  /**
+   * Get the rank counts of a bit mask packed into a long, see rankSignature().
+   * @param mask The bit mask of the cards.
+   * @return The packed rank counts.
+   */
+
+  public static long rankSignature(long mask) {
+    long x = mask & REGULAR_MASK;
+    x = x - ((x >>> 1) & 0x5555555555555555L);
+    x = (x & 0x3333333333333333L) + ((x >>> 2) & 0x3333333333333333L);
+    return x | (mask & 1L << LOWER_JOKER_BIT) | (mask >>> (LOWER_JOKER_BIT + 1) & 1L) << 56;
+  }
+
+  public long mask() { return mask; }
+
+  public int size() { return Long.bitCount(mask); }
+
+  public boolean isEmpty() { return mask == 0; }
+
+  public boolean contains(Card card) { return (mask & 1L << card.ordinal()) != 0; }
+
+  /**
+   * Check if every card of the other set is in this set.
+   * @param other The other set.
+   * @return True if other is a subset of this set.
+   */
+
+  public boolean containsAll(CardSet other) { return (other.mask & ~mask) == 0; }
+
+  public CardSet union(CardSet other) { return of(mask | other.mask); }
+
+  public CardSet difference(CardSet other) { return of(mask & ~other.mask); }
+
+  public CardSet intersection(CardSet other) { return of(mask & other.mask); }
+
+  /**
+   * Count the cards of a given rank in the set.
+   * @param rank The given rank.
+   * @return The number of cards of the rank, from 0 to 4.
+   */
+
+  public int count(Rank rank) { return Long.bitCount(mask & rankMask(rank)); }
+
+  /**
+   * Get the rank counts of the set packed into a long, four bits per rank: bits (r * 4) to
+   * (r * 4 + 3) hold the number of cards whose Rank.ordinal() is r.
+   * @return The packed rank counts.
+   */
+
+  public long rankSignature() {
+    return rankSignature(mask);
+  }
+
+  /**
+   * Get the greatest card of a given rank in the set.
+   * @param rank The given rank.
+   * @return The card, or null if the set contains no card of that rank.
+   */
+
+  public Card highest(Rank rank) {
+    long bits = mask & rankMask(rank);
+    return bits == 0 ? null : Card.ofOrdinal(63 - Long.numberOfLeadingZeros(bits));
+  }
+
+  /**
+   * Convert the set into a list of cards in ascending order.
+   * @return A new list of the cards.
+   */
+
+  public List<Card> toList() {
+    List<Card> result = new ArrayList<>(size());
+    for (long bits = mask; bits != 0; bits &= bits - 1) {
+      result.add(Card.ofOrdinal(Long.numberOfTrailingZeros(bits)));
+    }
+    return result;
+  }
+
+  @Override
+  public Iterator<Card> iterator() {
+    return new Iterator<Card>() {
+      private long remain = mask;
+
+      @Override
+      public boolean hasNext() { return remain != 0; }
+
+      @Override
+      public Card next() {
+        if (remain == 0) {
+          throw new NoSuchElementException();
+        }
+        Card card = Card.ofOrdinal(Long.numberOfTrailingZeros(remain));
+        remain &= remain - 1;
+        return card;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof CardSet && ((CardSet) o).mask == mask;
+  }
+
+  @Override
+  public int hashCode() { return Long.hashCode(mask); }
+
+  @Override
+  public String toString() { return toList().toString(); }
+}
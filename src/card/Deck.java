@@ -1,6 +1,8 @@
 package card;
 
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * The class defines a interface of deck we used to play Fight the LandLord.
@@ -9,6 +11,27 @@ import java.util.List;
 
 public interface Deck {
 
+  /**
+   * The method creates a new, independent deck.
+   * @param random The generator that shuffles the deck. It shall not be shared with other decks.
+   * @return The deck.
+   */
+
+  static Deck create(RandomGenerator random) {
+    return new DeckImpl(random);
+  }
+
+  /**
+   * The method creates a new, independent deck that is shuffled by a SplittableRandom.
+   * Two decks created from the same seed deal the same cards.
+   * @param seed The seed of the generator.
+   * @return The deck.
+   */
+
+  static Deck create(long seed) {
+    return new DeckImpl(new SplittableRandom(seed));
+  }
+
   /**
    * The method deal the top card out.
    * @return The top card on the current remaining deck.
@@ -28,6 +51,15 @@ public interface Deck {
 
   void reset();
 
+  /**
+   * The method resets the deck and shuffles it by a seed alone, so that the order of the cards
+   * depends on the seed only, and not on any generator of the deck. Replaying a seed deals the same
+   * cards on every run and every JVM.
+   * @param seed The seed of the shuffle.
+   */
+
+  void reset(long seed);
+
   /**
    * The method deals cards for three player for a Fight the Landlord game.
    * Result is a list of lists of Cards.
@@ -39,4 +71,24 @@ public interface Deck {
 
   List<List<Card>> dealCardForThreePlayer();
 
+  /**
+   * The method deals cards for three player for a Fight the Landlord game into a caller owned
+   * buffer, without allocating.
+   * The first, second, and third mask, of 17 cards, are the CardSet masks of the starting hands.
+   * The fourth mask, of 3 cards, is the CardSet mask of the landlord cards.
+   * @param hands A buffer of at least 4 masks.
+   */
+
+  void dealCardForThreePlayer(long[] hands);
+
+  /**
+   * The method deals cards for three player for a Fight the Landlord game into caller owned
+   * arrays, without allocating. Every hand is sorted in ascending order.
+   * The first, second, and third array, of at least 17 slots, receive the starting hands.
+   * The fourth array, of at least 3 slots, receives the landlord cards.
+   * @param hands A buffer of at least 4 arrays.
+   */
+
+  void dealCardForThreePlayer(Card[][] hands);
+
 }
@@ -1,77 +1,160 @@
 package card;
 
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * The class implement a specific deck.
- * There is only one instance of deck is required, so singleton pattern is applied.
+ * The deck keeps the ordinals of its cards in a primitive array, and shuffles them in place with
+ * a Fisher-Yates shuffle driven by its own RandomGenerator. Every game shall own its deck, so
+ * decks of concurrent games share no state, and a game can be reproduced from the seed of its
+ * generator. reset(long) shuffles by an explicit seed instead, with a SplitMix64 sequence that is
+ * part of the deck, so a seeded deal never changes with the JDK or the generator.
+ * While metrics are enabled, every shuffle is timed, and one deal in Metrics.SAMPLE_RATE.
+ * A deck is not thread safe.
  */
 
 public class DeckImpl implements Deck {
-  private static DeckImpl ourInstance = new DeckImpl();
 
-  private final List<Card> deck;
-  private int dealIndex = 0;
+  private static final int HAND_SIZE = 17;
+  private static final int LANDLORD_CARDS = 3;
+  private static final LatencyHistogram SHUFFLE = Metrics.getInstance().histogram("deck.shuffle");
+  private static final LatencyHistogram DEAL = Metrics.getInstance().histogram("deck.deal");
 
-  public static DeckImpl getInstance() {
-    return ourInstance;
-  }
+  private final byte[] deck = new byte[Card.COUNT];
+  private final RandomGenerator random;
+  private int dealIndex = 0;
 
-  private DeckImpl() {
-    deck = new ArrayList<>();
-    for (Suit suit : Suit.values()) {
-      if (suit == Suit.Joker) {
-        continue;
-      }
-      for (Rank rank : Rank.values()) {
-        if (rank == Rank.LowerJoker || rank == Rank.HigherJoker) {
-          continue;
-        }
-        deck.add(new Card(suit, rank));
-      }
-    }
-    deck.add(new Card(Suit.Joker, Rank.LowerJoker));
-    deck.add(new Card(Suit.Joker, Rank.HigherJoker));
+  public DeckImpl(RandomGenerator random) {
+    this.random = random;
+    restoreOrder();
   }
 
   @Override
   public Card dealCard() {
-    return remainCards() == 0 ? null : deck.get(dealIndex++);
+    return remainCards() == 0 ? null : Card.ofOrdinal(deck[dealIndex++]);
   }
 
   @Override
-  public void shuffle() { Collections.shuffle(deck); }
+  public void shuffle() {
+    for (int i = deck.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      byte temp = deck[i];
+      deck[i] = deck[j];
+      deck[j] = temp;
+    }
+  }
+
+  /**
+   * The method puts the cards back into their original order before shuffling them, so that the
+   * order after a reset depends on the state of the generator only.
+   */
 
   @Override
   public void reset() {
+    long start = Metrics.start();
+    restoreOrder();
     shuffle();
     dealIndex = 0;
+    SHUFFLE.recordSince(start);
+  }
+
+  /**
+   * The swaps of the shuffle take the high 32 bits of each SplitMix64 output and scale them to
+   * the bound by a multiplication, whose bias of at most 54 in 2^32 does not matter for a deal.
+   */
+
+  @Override
+  public void reset(long seed) {
+    long start = Metrics.start();
+    restoreOrder();
+    long state = seed;
+    for (int i = deck.length - 1; i > 0; i--) {
+      state += 0x9E3779B97F4A7C15L;
+      long z = state;
+      z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+      z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+      z ^= z >>> 31;
+      int j = (int) (((z >>> 32) * (i + 1)) >>> 32);
+      byte temp = deck[i];
+      deck[i] = deck[j];
+      deck[j] = temp;
+    }
+    dealIndex = 0;
+    SHUFFLE.recordSince(start);
   }
 
   @Override
   public List<List<Card>> dealCardForThreePlayer() {
+    checkFullDeck();
+    long start = Metrics.sample();
     List<List<Card>> result = new ArrayList<>();
     for (int i = 0; i < 3; i++) {
-      List<Card> currentPlayer = new ArrayList<>();
-      for (int j = 0; j < 17; j++) {
-        currentPlayer.add(dealCard());
-      }
-      Collections.sort(currentPlayer);
-      result.add(currentPlayer);
+      result.add(CardSet.of(dealMask(HAND_SIZE)).toList());
     }
-    List<Card> landLord = new ArrayList<>();
+    result.add(CardSet.of(dealMask(LANDLORD_CARDS)).toList());
+    DEAL.recordSince(start);
+    return result;
+  }
+
+  @Override
+  public void dealCardForThreePlayer(long[] hands) {
+    checkFullDeck();
+    long start = Metrics.sample();
     for (int i = 0; i < 3; i++) {
-      landLord.add(dealCard());
+      hands[i] = dealMask(HAND_SIZE);
     }
-    Collections.sort(landLord);
-    result.add(landLord);
-    return result;
+    hands[3] = dealMask(LANDLORD_CARDS);
+    DEAL.recordSince(start);
   }
 
-  private int remainCards() { return deck.size() - dealIndex; }
+  /**
+   * The cards of a hand are sorted by a counting sort over their ordinals: each dealt card sets
+   * the bit of its ordinal, and the bits are then read back in ascending order.
+   */
 
-}
+  @Override
+  public void dealCardForThreePlayer(Card[][] hands) {
+    checkFullDeck();
+    long start = Metrics.sample();
+    for (int i = 0; i < 3; i++) {
+      fill(hands[i], dealMask(HAND_SIZE));
+    }
+    fill(hands[3], dealMask(LANDLORD_CARDS));
+    DEAL.recordSince(start);
+  }
+
+  private long dealMask(int count) {
+    long mask = 0L;
+    for (int i = 0; i < count; i++) {
+      mask |= 1L << deck[dealIndex++];
+    }
+    return mask;
+  }
+
+  private static void fill(Card[] hand, long mask) {
+    int index = 0;
+    for (long bits = mask; bits != 0; bits &= bits - 1) {
+      hand[index++] = Card.ofOrdinal(Long.numberOfTrailingZeros(bits));
+    }
+  }
 
+  private void checkFullDeck() {
+    if (dealIndex != 0) {
+      throw new IllegalStateException("Some cards have been dealt, reset the deck first.");
+    }
+  }
 
+  private void restoreOrder() {
+    for (int i = 0; i < deck.length; i++) {
+      deck[i] = (byte) i;
+    }
+  }
+
+  private int remainCards() { return deck.length - dealIndex; }
+
+}
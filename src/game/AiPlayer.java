@@ -0,0 +1,54 @@
+package game;
+
+import card.Card;
+import card.CardSet;
+
+import java.util.List;
+
+/**
+ * The class implements a player whose plays are decided by a strategy, such as IsmctsStrategy,
+ * instead of being selected by hand. It keeps its hand and checks its plays like PlayerImpl.
+ */
+
+public class AiPlayer extends PlayerImpl {
+
+  private final Strategy strategy;
+
+  public AiPlayer(List<Card> cards, Strategy strategy) {
+    this(CardSet.of(cards), strategy);
+  }
+
+  public AiPlayer(CardSet cards, Strategy strategy) {
+    super(cards);
+    this.strategy = strategy;
+  }
+
+  public Strategy getStrategy() {
+    return strategy;
+  }
+
+  /**
+   * The method lets the strategy decide the bid of the player.
+   * @param state The state of the game, in which the seat holds the hand of this player.
+   * @param seat The seat of the player.
+   * @return 0 to pass, or a bid from 1 to 3.
+   */
+
+  public int bid(GameState state, int seat) {
+    return strategy.bid(state, seat);
+  }
+
+  /**
+   * The method lets the strategy decide the play of the player, and plays it.
+   * @param state The state of the game, in which the seat holds the hand of this player.
+   * @param seat The seat of the player.
+   * @return The play, or null if the player passes.
+   */
+
+  public Plays play(GameState state, int seat) {
+    if (!state.getHand(seat).equals(getHandSet())) {
+      throw new IllegalArgumentException("The seat does not hold the hand of this player.");
+    }
+    return playCards(state.getLastPlay(), strategy.play(state, seat));
+  }
+}
@@ -0,0 +1,251 @@
+package game;
+
+import metrics.Metrics;
+import metrics.TextSink;
+import record.GameRecord;
+import record.GameRecordWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * The class plays a batch of independent games on a fixed pool of worker threads.
+ * Game i of a batch is played by a fresh GameEngine with its own deck, from a game seed derived
+ * from the seed of the batch and i, so every game of a batch can be reproduced on its own, no
+ * matter which worker played it. Workers take the games in chunks and sum up their results
+ * locally, the sums are merged once the batch is done.
+ */
+
+public class BatchRunner {
+
+  private static final int CHUNK = 256;
+
+  private final Supplier<Strategy> strategies;
+  private final int threads;
+
+  /**
+   * Create a runner.
+   * @param strategies Creates the strategy of each seat of each game.
+   * @param threads The number of worker threads.
+   */
+
+  public BatchRunner(Supplier<Strategy> strategies, int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("A runner needs at least one thread!");
+    }
+    this.strategies = strategies;
+    this.threads = threads;
+  }
+
+  /**
+   * Get the seed of a game in a batch.
+   * @param seed The seed of the batch.
+   * @param game The index of the game in the batch.
+   * @return The seed of the game.
+   */
+
+  public static long gameSeed(long seed, long game) {
+    long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * The method plays one game of a batch.
+   * @param seed The seed of the batch.
+   * @param game The index of the game in the batch.
+   * @return The result of the game.
+   */
+
+  public GameEngine.Result playGame(long seed, long game) {
+    long gameSeed = gameSeed(seed, game);
+    GameEngine engine = new GameEngine(strategies.get(), strategies.get(), strategies.get(),
+            new SplittableRandom(gameSeed));
+    return engine.play(gameSeed);
+  }
+
+  /**
+   * The method plays a batch of games and sums up their results.
+   * @param games The number of games.
+   * @param seed The seed of the batch.
+   * @return The summary of the batch.
+   */
+
+  public Summary run(long games, long seed) {
+    return run(games, seed, null);
+  }
+
+  /**
+   * The method plays a batch of games, sums up their results and writes the record of each game
+   * in the order of the games.
+   * @param games The number of games.
+   * @param seed The seed of the batch.
+   * @param writer Receives the records, or null to keep no records.
+   * @return The summary of the batch.
+   */
+
+  public Summary run(long games, long seed, GameRecordWriter writer) {
+    long start = System.nanoTime();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Chunk>> futures = new ArrayList<>();
+      for (long from = 0; from < games; from += CHUNK) {
+        long begin = from;
+        long end = Math.min(games, from + CHUNK);
+        futures.add(pool.submit(() -> playChunk(seed, begin, end, writer != null)));
+      }
+      Summary total = new Summary();
+      for (Future<Chunk> future : futures) {
+        Chunk chunk = future.get();
+        total.merge(chunk.summary);
+        if (writer != null) {
+          for (GameRecord record : chunk.records) {
+            writer.write(record);
+          }
+        }
+      }
+      total.nanos = System.nanoTime() - start;
+      return total;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("The batch was interrupted.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game of the batch failed.", e.getCause());
+    } catch (IOException e) {
+      throw new UncheckedIOException("The records of the batch could not be written.", e);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private Chunk playChunk(long seed, long begin, long end, boolean record) {
+    Chunk chunk = new Chunk(record ? (int) (end - begin) : 0);
+    for (long game = begin; game < end; game++) {
+      long gameSeed = gameSeed(seed, game);
+      GameEngine engine = new GameEngine(strategies.get(), strategies.get(), strategies.get(),
+              new SplittableRandom(gameSeed));
+      chunk.summary.add(engine.play(gameSeed));
+      if (record) {
+        chunk.records.add(engine.getRecord().copy());
+      }
+    }
+    return chunk;
+  }
+
+  /**
+   * Plays a batch of self-play games with GreedyStrategy and prints the summary, and the metrics
+   * if they are enabled.
+   * @param args The number of games, the number of threads, the seed and the path of a file to
+   *             write the records of the games to, all optional.
+   * @throws IOException If the records cannot be written.
+   */
+
+  public static void main(String[] args) throws IOException {
+    long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+            : Runtime.getRuntime().availableProcessors();
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+    BatchRunner runner = new BatchRunner(GreedyStrategy::new, threads);
+    if (args.length > 3) {
+      try (GameRecordWriter writer = GameRecordWriter.open(Path.of(args[3]))) {
+        System.out.println(runner.run(games, seed, writer));
+        writer.flush();
+        System.out.printf("%d bytes of records, %.1f bytes per game%n",
+                writer.getBytesWritten(), (double) writer.getBytesWritten() / Math.max(1, games));
+      }
+    } else {
+      System.out.println(runner.run(games, seed));
+    }
+    if (Metrics.isEnabled()) {
+      Metrics.getInstance().report(new TextSink(System.out));
+    }
+  }
+
+  /**
+   * The class holds the results of a chunk of games.
+   */
+
+  private static final class Chunk {
+    private final Summary summary = new Summary();
+    private final List<GameRecord> records;
+
+    Chunk(int games) {
+      records = new ArrayList<>(games);
+    }
+  }
+
+  /**
+   * The class sums up the results of a batch of games.
+   */
+
+  public static class Summary {
+    private long games;
+    private long landlordWins;
+    private long turns;
+    private long bombs;
+    private long redeals;
+    private long nanos;
+
+    void add(GameEngine.Result result) {
+      games++;
+      landlordWins += result.isLandlordWin() ? 1 : 0;
+      turns += result.getTurns();
+      bombs += result.getBombs();
+      redeals += result.getRedeals();
+    }
+
+    void merge(Summary other) {
+      games += other.games;
+      landlordWins += other.landlordWins;
+      turns += other.turns;
+      bombs += other.bombs;
+      redeals += other.redeals;
+    }
+
+    public long getGames() {
+      return games;
+    }
+
+    public long getLandlordWins() {
+      return landlordWins;
+    }
+
+    public long getTurns() {
+      return turns;
+    }
+
+    public long getBombs() {
+      return bombs;
+    }
+
+    public long getRedeals() {
+      return redeals;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    public double getGamesPerMinute() {
+      return nanos == 0 ? 0 : games * 60e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d games in %.2f s (%.0f games/min), landlord won %.1f%%, "
+                      + "%.1f turns and %.2f bombs per game, %d redeals", games, nanos / 1e9,
+              getGamesPerMinute(), 100.0 * landlordWins / Math.max(1, games),
+              (double) turns / Math.max(1, games), (double) bombs / Math.max(1, games), redeals);
+    }
+  }
+}
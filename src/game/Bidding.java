@@ -0,0 +1,109 @@
+package game;
+
+/**
+ * The class implements the landlord bidding as a state machine.
+ * Bidding starts from a given seat and goes around the table once. Each seat either passes or bids
+ * higher than the current bid, from 1 to 3, and a bid of 3 ends the bidding immediately. Once every
+ * seat has bid, the highest bidder becomes the landlord. If every seat passes, the cards have to be
+ * dealt again.
+ * A Bidding can be reused by calling start() again. It is not thread safe.
+ */
+
+public final class Bidding {
+
+  public static final int PASS = 0;
+  public static final int MAX_BID = 3;
+
+  private int first = -1;
+  private int bids;
+  private int bid;
+  private int landlord = -1;
+  private boolean over;
+
+  /**
+   * The method starts a new bidding.
+   * @param firstSeat The seat that bids first.
+   */
+
+  public void start(int firstSeat) {
+    if (firstSeat < 0 || firstSeat >= GameState.SEATS) {
+      throw new IllegalArgumentException("There is no seat " + firstSeat + "!");
+    }
+    first = firstSeat;
+    bids = 0;
+    bid = PASS;
+    landlord = -1;
+    over = false;
+  }
+
+  /**
+   * Get the seat to bid.
+   * @return The seat, or -1 if the bidding is over or has not started.
+   */
+
+  public int getTurn() {
+    return over || first < 0 ? -1 : (first + bids) % GameState.SEATS;
+  }
+
+  /**
+   * Check if a bid is allowed for the seat to bid.
+   * @param value The bid, PASS or 1 to 3.
+   * @return True if the bid is PASS or higher than the current bid.
+   */
+
+  public boolean isAllowed(int value) {
+    return value == PASS || (value > bid && value <= MAX_BID);
+  }
+
+  /**
+   * The method records the bid of the seat to bid.
+   * @param seat The seat.
+   * @param value The bid, PASS or 1 to 3 and higher than the current bid.
+   */
+
+  public void bid(int seat, int value) {
+    if (seat != getTurn()) {
+      throw new IllegalStateException("It is not the turn of seat " + seat + " to bid.");
+    }
+    if (!isAllowed(value)) {
+      throw new IllegalArgumentException("A bid must be a pass or higher than " + bid + ", up to "
+              + MAX_BID + "!");
+    }
+    if (value != PASS) {
+      bid = value;
+      landlord = seat;
+    }
+    bids++;
+    over = bids == GameState.SEATS || bid == MAX_BID;
+  }
+
+  public boolean isOver() {
+    return over;
+  }
+
+  /**
+   * Check if the cards have to be dealt again.
+   * @return True if the bidding is over and every seat passed.
+   */
+
+  public boolean isRedeal() {
+    return over && landlord < 0;
+  }
+
+  /**
+   * Get the highest bidder so far.
+   * @return The seat, or -1 if every seat passed so far.
+   */
+
+  public int getLandlord() {
+    return landlord;
+  }
+
+  public int getBid() {
+    return bid;
+  }
+
+  public int getFirst() {
+    return first;
+  }
+}
@@ -1,16 +1,14 @@
 package game;
 
 import card.Card;
-import card.Rank;
+import card.CardSet;
+import metrics.Metrics;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 
 /**
  * The enum defines the several types for each player to play their cards.
+ * While metrics are enabled, determineType() counts its results by type, see GameMetrics.
  */
 
 public enum CardsType {
@@ -39,16 +37,7 @@ public enum CardsType {
    */
 
   public static boolean isSolo(List<Card> card, Watcher watcher) {
-    if (card == null) {
-      return false;
-    }
-    if (card.size() == 1) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(0));
-      }
-      return true;
-    }
-    return false;
+    return is(CardsType.Solo, card, watcher);
   }
 
   /**
@@ -73,30 +62,7 @@ public enum CardsType {
    */
 
   public static boolean isSoloChain(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() < 5 || card.size() > 12) {
-      return false;
-    }
-    Collections.sort(card);
-    Rank lastRank = null;
-    for (Card curr : card) {
-      if (curr.getRank() == Rank.Two) {
-        return false;
-      }
-      if (lastRank == null) {
-        lastRank = curr.getRank();
-      } else if (curr.getRank().getRank() - 1 != lastRank.getRank()) {
-        return false;
-      } else {
-        lastRank = curr.getRank();
-      }
-    }
-    if (lastRank != null && lastRank.getRank() < 13) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(card.size() - 1));
-      }
-      return true;
-    }
-    return false;
+    return is(CardsType.SoloChain, card, watcher);
   }
 
   /**
@@ -121,16 +87,7 @@ public enum CardsType {
    */
 
   public static boolean isPair(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() != 2 || card.get(0).isJoker()) {
-      return false;
-    }
-    if (card.get(0).getRank() == card.get(1).getRank()) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(0));
-      }
-      return true;
-    }
-    return false;
+    return is(CardsType.Pair, card, watcher);
   }
 
   /**
@@ -155,33 +112,7 @@ public enum CardsType {
    */
 
   public static boolean isPairSisters(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() < 6 || card.size() > 20 || card.size() % 2 != 0) {
-      return false;
-    }
-    Collections.sort(card);
-    Rank lastRank = card.get(0).getRank();
-    for (int i = 1; i < card.size(); i++) {
-      if (card.get(i).getRank() == Rank.Two) {
-        return false;
-      }
-      if (i % 2 == 1) {
-        if (card.get(i).getRank() != lastRank) {
-          return false;
-        }
-      } else {
-        if (card.get(i).getRank().getRank() - 1 != lastRank.getRank()) {
-          return false;
-        }
-        lastRank = card.get(i).getRank();
-      }
-    }
-    if (lastRank != null && lastRank.getRank() < 13) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(card.size() - 1));
-      }
-      return true;
-    }
-    return false;
+    return is(CardsType.PairSisters, card, watcher);
   }
 
   /**
@@ -204,16 +135,7 @@ public enum CardsType {
    */
 
   public static boolean isTrio(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() != 3) {
-      return false;
-    }
-    if (CardsType.isListContainsIdenticalElement(card)) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(0));
-      }
-      return true;
-    }
-    return false;
+    return is(CardsType.Trio, card, watcher);
   }
 
   /**
@@ -238,30 +160,7 @@ public enum CardsType {
    */
 
   public static boolean isTrioChain(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() < 6 || card.size() > 20 || card.size() % 3 != 0) {
-      return false;
-    }
-    Collections.sort(card);
-    Rank lastRank = card.get(0).getRank();
-    for (int i = 1; i < card.size(); i++) {
-      if (i % 3 != 0) {
-        if (card.get(i).getRank() != lastRank) {
-          return false;
-        }
-      } else {
-        if (card.get(i).getRank().getRank() - 1 != lastRank.getRank()) {
-          return false;
-        }
-        lastRank = card.get(i).getRank();
-      }
-    }
-    if (lastRank != null && lastRank.getRank() < 13) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(card.size() - 1));
-      }
-      return true;
-    }
-    return false;
+    return is(CardsType.TrioChain, card, watcher);
   }
 
   /**
@@ -287,32 +186,8 @@ public enum CardsType {
    * @return True if the play is TrioKicksSolo.
    */
 
-  public static boolean isTrioKicksSolo(List<Card> card, Watcher watcher) { // Bugs!
-    if (card == null || card.size() != 4) {
-      return false;
-    }
-    Collections.sort(card);
-    Card probe = card.get(0);
-    List<Card> first = new ArrayList<>();
-    List<Card> second = new ArrayList<>();
-    for (Card curr : card) {
-      if (curr.getRank() == probe.getRank()) {
-        first.add(curr);
-      } else {
-        second.add(curr);
-      }
-    }
-    if (!CardsType.isListContainsIdenticalElement(first)
-            || !CardsType.isListContainsIdenticalElement(second)) {
-      return false;
-    }
-    if ((first.size() == 1 && second.size() == 3) || (first.size() == 3 && second.size() == 1)) {
-      if (watcher != null) {
-        watcher.setPrimeCard(first.size() == 3 ? first.get(0) : second.get(0));
-      }
-      return true;
-    }
-    return false;
+  public static boolean isTrioKicksSolo(List<Card> card, Watcher watcher) {
+    return is(CardsType.TrioKicksSolo, card, watcher);
   }
 
   /**
@@ -339,31 +214,7 @@ public enum CardsType {
    */
 
   public static boolean isTrioKicksPair(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() != 5) {
-      return false;
-    }
-    Collections.sort(card);
-    Card probe = card.get(0);
-    List<Card> first = new ArrayList<>();
-    List<Card> second = new ArrayList<>();
-    for (Card curr : card) {
-      if (curr.getRank() == probe.getRank()) {
-        first.add(curr);
-      } else {
-        second.add(curr);
-      }
-    }
-    if (!CardsType.isListContainsIdenticalElement(first)
-            || !CardsType.isListContainsIdenticalElement(second)) {
-      return false;
-    }
-    if ((first.size() == 2 && second.size() == 3) || (first.size() == 3 && second.size() == 2)) {
-      if (watcher != null) {
-        watcher.setPrimeCard(first.size() == 3 ? first.get(0) : second.get(0));
-      }
-      return true;
-    }
-    return false;
+    return is(CardsType.TrioKicksPair, card, watcher);
   }
 
   /**
@@ -392,32 +243,7 @@ public enum CardsType {
    */
 
   public static boolean isAirplaneKicksSolo(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() % 4 != 0) {
-      return false;
-    }
-    Map<Rank, List<Card>> occMap = new HashMap<>();
-    for (Card curr : card) {
-      if (!occMap.containsKey(curr.getRank())) {
-        occMap.put(curr.getRank(), new ArrayList<>());
-      }
-      occMap.get(curr.getRank()).add(curr);
-    }
-    List<Card> primeList = new ArrayList<>();
-    List<Card> kickerList = new ArrayList<>();
-    for (Rank rank : occMap.keySet()) {
-      List<Card> values = occMap.get(rank);
-      if (values.size() >= 3) {
-        for (int i = 0; i < 3; i++) {
-          primeList.add(values.get(values.size() - 1));
-          values.remove(values.size() - 1);
-        }
-      }
-      kickerList.addAll(values);
-    }
-    if (kickerList.size() * 3 != primeList.size()) {
-      return false;
-    }
-    return isTrioChain(primeList, watcher);
+    return is(CardsType.AirplaneKicksSolo, card, watcher);
   }
 
   /**
@@ -446,39 +272,7 @@ public enum CardsType {
    */
 
   public static boolean isAirplaneKicksPair(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() % 5 != 0) {
-      return false;
-    }
-    Map<Rank, List<Card>> occMap = new HashMap<>();
-    for (Card curr : card) {
-      if (!occMap.containsKey(curr.getRank())) {
-        occMap.put(curr.getRank(), new ArrayList<>());
-      }
-      occMap.get(curr.getRank()).add(curr);
-    }
-    List<Card> primeList = new ArrayList<>();
-    List<Card> kickerList = new ArrayList<>();
-    for (Rank rank : occMap.keySet()) {
-      List<Card> values = occMap.get(rank);
-      if (values.size() == 3) {
-        for (int i = 0; i < 3; i++) {
-          primeList.add(values.get(values.size() - 1));
-          values.remove(values.size() - 1);
-        }
-      } else if (values.size() == 2) {
-        if (isPair(values)) {
-          kickerList.addAll(values);
-        } else {
-          return false;
-        }
-      } else {
-        return false;
-      }
-    }
-    if (kickerList.size() * 3 != primeList.size() * 2) {
-      return false;
-    }
-    return isTrioChain(primeList, watcher);
+    return is(CardsType.AirplaneKicksPair, card, watcher);
   }
 
   /**
@@ -503,15 +297,7 @@ public enum CardsType {
    */
 
   public static boolean isBomb(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() != 4) {
-      return false;
-    }
-    if (CardsType.isListContainsIdenticalElement(card)) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(0));
-      }
-    }
-    return false;
+    return is(CardsType.Bomb, card, watcher);
   }
 
   /**
@@ -542,37 +328,7 @@ public enum CardsType {
    */
 
   public static boolean isFourKicksDualSolo(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() != 6) {
-      return false;
-    }
-    Map<Rank, List<Card>> occMap = new HashMap<>();
-    for (Card curr : card) {
-      if (!occMap.containsKey(curr.getRank())) {
-        occMap.put(curr.getRank(), new ArrayList<>());
-      }
-      occMap.get(curr.getRank()).add(curr);
-    }
-    List<Card> primeList = new ArrayList<>();
-    List<Card> kickerList = new ArrayList<>();
-    for (Rank rank : occMap.keySet()) {
-      List<Card> values = occMap.get(rank);
-      if (values.size() == 4) {
-        primeList.addAll(values);
-      } else if (values.size() == 1) {
-        kickerList.addAll(values);
-      } else {
-        return false;
-      }
-    }
-    if (primeList.size() != 4 || kickerList.size() != 2) {
-      return false;
-    }
-    if (isListContainsIdenticalElement(primeList)) {
-      if (watcher != null) {
-        watcher.setPrimeCard(primeList.get(0));
-      }
-    }
-    return false;
+    return is(CardsType.FourKicksDualSolo, card, watcher);
   }
 
   /**
@@ -601,40 +357,7 @@ public enum CardsType {
    */
 
   public static boolean isFourKicksDualPair(List<Card> card, Watcher watcher) {
-    if (card == null || card.size() != 8) {
-      return false;
-    }
-    Map<Rank, List<Card>> occMap = new HashMap<>();
-    for (Card curr : card) {
-      if (!occMap.containsKey(curr.getRank())) {
-        occMap.put(curr.getRank(), new ArrayList<>());
-      }
-      occMap.get(curr.getRank()).add(curr);
-    }
-    List<Card> primeList = new ArrayList<>();
-    List<Card> kickerList = new ArrayList<>();
-    for (Rank rank : occMap.keySet()) {
-      List<Card> values = occMap.get(rank);
-      if (values.size() == 4) {
-        primeList.addAll(values);
-      } else if (values.size() == 2) {
-        if (!isPair(values)) {
-          return false;
-        }
-        kickerList.addAll(values);
-      } else {
-        return false;
-      }
-    }
-    if (primeList.size() != 4 || kickerList.size() != 4) {
-      return false;
-    }
-    if (isListContainsIdenticalElement(primeList)) {
-      if (watcher != null) {
-        watcher.setPrimeCard(primeList.get(0));
-      }
-    }
-    return false;
+    return is(CardsType.FourKicksDualPair, card, watcher);
   }
 
   /**
@@ -661,15 +384,39 @@ public enum CardsType {
    */
 
   public static boolean isRocket(List<Card> card, Watcher watcher) {
+    return is(CardsType.Rocket, card, watcher);
+  }
+
+  /**
+   * The method help to determine the cardType of a given card play.
+   * @param card The given card play.
+   * @return CardType or null if the card play is not valid.
+   */
+
+  public static CardsType determineType(List<Card> card) {
+    return determineType(card, null);
+  }
+
+  /**
+   * The method help to determine the cardType of a given card play.
+   * The rank signature of the play is looked up in the ShapeTable, the given list is neither sorted
+   * nor copied.
+   * @param card The given card play.
+   * @param watcher A auxiliary class to determine the prime card.
+   * @return CardType or null if the card play is not valid.
+   */
+
+  public static CardsType determineType(List<Card> card, Watcher watcher) {
     if (card == null) {
-      return false;
+      return null;
     }
-    if (card.size() == 2 && card.get(0).isJoker() && card.get(1).isJoker()) {
-      if (watcher != null) {
-        watcher.setPrimeCard(card.get(1));
-      }
+    long start = Metrics.sample();
+    int code = ShapeTable.getInstance().lookup(HandClassifier.signature(card));
+    if (code != HandClassifier.INVALID && watcher != null) {
+      watcher.setPrimeCard(HandClassifier.primeCardOf(card, code));
     }
-    return false;
+    GameMetrics.classified(code, start);
+    return HandClassifier.typeOf(code);
   }
 
   /**
@@ -678,62 +425,52 @@ public enum CardsType {
    * @return CardType or null if the card play is not valid.
    */
 
-  public static CardsType determineType(List<Card> card) {
+  public static CardsType determineType(CardSet card) {
     return determineType(card, null);
   }
 
   /**
    * The method help to determine the cardType of a given card play.
+   * The rank signature of the set is looked up in the ShapeTable, no list or histogram is
+   * allocated.
    * @param card The given card play.
    * @param watcher A auxiliary class to determine the prime card.
    * @return CardType or null if the card play is not valid.
    */
 
-  public static CardsType determineType(List<Card> card, Watcher watcher) {
-    if (isSolo(card, watcher)) {
-      return CardsType.Solo;
-    } else if (isPair(card, watcher)) {
-      return CardsType.Pair;
-    } else if (isTrio(card, watcher)) {
-      return CardsType.Trio;
-    } else if (isBomb(card, watcher)) {
-      return CardsType.Bomb;
-    } else if (isRocket(card, watcher)) {
-      return CardsType.Rocket;
-    } else if (isSoloChain(card, watcher)) {
-      return CardsType.SoloChain;
-    } else if (isPairSisters(card, watcher)) {
-      return CardsType.PairSisters;
-    } else if (isTrioChain(card, watcher)) {
-      return CardsType.TrioChain;
-    } else if (isTrioKicksSolo(card, watcher)) {
-      return CardsType.TrioKicksSolo;
-    } else if (isTrioKicksPair(card, watcher)) {
-      return CardsType.TrioKicksPair;
-    } else if (isAirplaneKicksSolo(card, watcher)) {
-      return CardsType.AirplaneKicksSolo;
-    } else if (isAirplaneKicksPair(card, watcher)) {
-      return CardsType.AirplaneKicksPair;
-    } else if (isFourKicksDualSolo(card, watcher)) {
-      return CardsType.FourKicksDualSolo;
-    } else if (isFourKicksDualPair(card, watcher)) {
-      return CardsType.FourKicksDualPair;
-    } else {
+  public static CardsType determineType(CardSet card, Watcher watcher) {
+    if (card == null) {
       return null;
     }
+    long start = Metrics.sample();
+    int code = ShapeTable.getInstance().lookup(card.rankSignature());
+    if (code != HandClassifier.INVALID && watcher != null) {
+      watcher.setPrimeCard(HandClassifier.primeCardOf(card, code));
+    }
+    GameMetrics.classified(code, start);
+    return HandClassifier.typeOf(code);
   }
 
-  private static boolean isListContainsIdenticalElement(List<Card> list) {
-    if (list == null || list.size() == 0) {
+  /**
+   * The method determines whether a given card play is of a given type. Like determineType, it
+   * reads the rank signature of the play only, so the given list is neither sorted nor copied, and
+   * can be shared between threads.
+   * @param type The given type.
+   * @param card The given card play.
+   * @param watcher A auxiliary class to determine the prime card. It is only set on a match.
+   * @return True if the play is of the given type.
+   */
+
+  private static boolean is(CardsType type, List<Card> card, Watcher watcher) {
+    if (card == null) {
+      return false;
+    }
+    int code = ShapeTable.getInstance().lookup(HandClassifier.signature(card));
+    if (HandClassifier.typeOf(code) != type) {
       return false;
-    } else if (list.size() == 1) {
-      return true;
     }
-    Card prob = list.get(0);
-    for (Card curr : list) {
-      if (curr.getRank() != prob.getRank()) {
-        return false;
-      }
+    if (watcher != null) {
+      watcher.setPrimeCard(HandClassifier.primeCardOf(card, code));
     }
     return true;
   }
@@ -0,0 +1,207 @@
+package game;
+
+import card.CardSet;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class memoizes a classification of card sets, such as the code of a play keyed by its card
+ * mask, or the fewest plays of a hand keyed by its compressed rank signature (see compress()), for
+ * any number of threads at once. Keys are longs of up to 54 bits other than 0, and values are ints
+ * from -1 to 254, so that a key and its value share one long, which is read and written atomically
+ * and never torn: the cache needs no lock.
+ * The cache is an open addressing table of fixed size over a primitive array. A key is looked for
+ * in a window of PROBES slots from its hash. When the window is full, an insert evicts one of its
+ * keys by CLOCK: a hit marks its entry as referenced, and the insert sweeps the window, clearing
+ * the marks, until it meets an entry that was not referenced since the last sweep. A hit only
+ * writes the first time it marks an entry, so threads that hit the same keys do not contend.
+ * The hits, misses and evictions are counted in LongAdders.
+ * A cache holds one kind of key only, and the values of a key must not change over time.
+ */
+
+public final class ClassificationCache {
+
+  public static final int MISSING = Integer.MIN_VALUE;
+  public static final int PROBES = 8;
+
+  private static final int VALUE_SHIFT = 54;
+  private static final long KEY_MASK = (1L << VALUE_SHIFT) - 1;
+  private static final long REFERENCED = 1L << 62;
+  private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private final long[] entries;
+  private final int shift;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Create a cache.
+   * @param bits The cache holds up to 2^bits keys, with bits from 3 to 30.
+   */
+
+  public ClassificationCache(int bits) {
+    if (bits < 3 || bits > 30) {
+      throw new IllegalArgumentException("The cache size must be between 2^3 and 2^30!");
+    }
+    entries = new long[1 << bits];
+    shift = 64 - bits;
+  }
+
+  /**
+   * The method packs a rank signature into a key: a rank holds at most four cards, so three bits
+   * of each four bit count are enough, and the signature fits into 45 bits.
+   * @param signature The rank signature.
+   * @return The key.
+   */
+
+  public static long compress(long signature) {
+    long key = 0L;
+    for (int r = 0; r < HandClassifier.RANKS; r++) {
+      key |= (signature >>> (r << 2) & 0x7L) << (r * 3);
+    }
+    return key;
+  }
+
+  /**
+   * Get the classification code of a play, looked up by its card mask first, and classified by
+   * ShapeTable and put into the cache on a miss.
+   * @param cards The card mask of the play.
+   * @return The classification code, or HandClassifier.INVALID.
+   */
+
+  public int classify(long cards) {
+    if (cards == 0L) {
+      return HandClassifier.INVALID;
+    }
+    int code = get(cards);
+    if (code == MISSING) {
+      code = ShapeTable.getInstance().lookup(CardSet.rankSignature(cards));
+      put(cards, code);
+    }
+    return code;
+  }
+
+  /**
+   * Get the value of a key.
+   * @param key The key.
+   * @return The value, or MISSING if the key is not cached.
+   */
+
+  public int get(long key) {
+    int mask = entries.length - 1;
+    int slot = slot(key);
+    for (int i = 0; i < PROBES; i++) {
+      int s = (slot + i) & mask;
+      long entry = (long) SLOTS.getAcquire(entries, s);
+      if (entry == 0L) {
+        break;
+      }
+      if ((entry & KEY_MASK) == key) {
+        if ((entry & REFERENCED) == 0L) {
+          SLOTS.compareAndSet(entries, s, entry, entry | REFERENCED);
+        }
+        hits.increment();
+        return (int) (entry >>> VALUE_SHIFT & 0xFF) - 1;
+      }
+    }
+    misses.increment();
+    return MISSING;
+  }
+
+  /**
+   * The method puts a key into the cache, unless it is cached already. If the window of the key
+   * is full, it evicts a key, and if other threads keep every key of the window referenced
+   * meanwhile, the key is not cached.
+   * @param key The key, from 1 to 2^54 - 1.
+   * @param value The value, from -1 to 254.
+   */
+
+  public void put(long key, int value) {
+    if (key <= 0L || key > KEY_MASK) {
+      throw new IllegalArgumentException("A key must be between 1 and 2^54 - 1!");
+    }
+    if (value < -1 || value > 254) {
+      throw new IllegalArgumentException("A value must be between -1 and 254!");
+    }
+    long fresh = (long) (value + 1) << VALUE_SHIFT | key;
+    int mask = entries.length - 1;
+    int slot = slot(key);
+    for (int i = 0; i < PROBES; i++) {
+      int s = (slot + i) & mask;
+      long entry = (long) SLOTS.getAcquire(entries, s);
+      if (entry == 0L) {
+        if (SLOTS.compareAndSet(entries, s, 0L, fresh)) {
+          return;
+        }
+        entry = (long) SLOTS.getAcquire(entries, s);
+      }
+      if ((entry & KEY_MASK) == key) {
+        return;
+      }
+    }
+    int hand = (int) (key >>> 3) & (PROBES - 1);
+    for (int i = 0; i < 2 * PROBES; i++) {
+      int s = (slot + ((hand + i) & (PROBES - 1))) & mask;
+      long entry = (long) SLOTS.getAcquire(entries, s);
+      if ((entry & REFERENCED) != 0L) {
+        SLOTS.compareAndSet(entries, s, entry, entry & ~REFERENCED);
+      } else if (SLOTS.compareAndSet(entries, s, entry, fresh)) {
+        evictions.increment();
+        return;
+      }
+    }
+  }
+
+  public int getCapacity() {
+    return entries.length;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Get the share of lookups that hit.
+   * @return The hit rate, from 0 to 1, or 0 if nothing was looked up.
+   */
+
+  public double getHitRate() {
+    long h = hits.sum();
+    long total = h + misses.sum();
+    return total == 0 ? 0.0 : (double) h / total;
+  }
+
+  /**
+   * The method empties the cache and resets its statistics. Lookups that run meanwhile may miss.
+   */
+
+  public void clear() {
+    for (int i = 0; i < entries.length; i++) {
+      SLOTS.setRelease(entries, i, 0L);
+    }
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("capacity=%d hits=%d misses=%d evictions=%d hitRate=%.3f",
+            getCapacity(), getHits(), getMisses(), getEvictions(), getHitRate());
+  }
+
+  private int slot(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+}
@@ -0,0 +1,185 @@
+package game;
+
+import card.CardSet;
+import record.GameCorpus;
+import record.GameRecord;
+import record.GameView;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The class sums up statistics over a corpus of game records: how often each card type is played,
+ * by the landlord and by the peasants, and how often the side that played it went on to win the
+ * game. Plays are classified from the bit masks of the records, without building Card objects.
+ * A CorpusStats is an accumulator for Stream.collect(), so a parallel scan keeps one per thread
+ * and merges them at the end:
+ * <pre>
+ *   CorpusStats stats = corpus.parallelStream()
+ *           .collect(CorpusStats::new, CorpusStats::add, CorpusStats::merge);
+ * </pre>
+ * A CorpusStats is not thread safe.
+ */
+
+public final class CorpusStats {
+
+  public static final int LANDLORD = 0;
+  public static final int PEASANTS = 1;
+
+  private static final int TYPES = CardsType.values().length;
+
+  private final long[][] plays = new long[2][TYPES];
+  private final long[][] wins = new long[2][TYPES];
+  private final int[][] game = new int[2][TYPES];
+  private long games;
+  private long landlordWins;
+  private long moves;
+  private long passes;
+
+  /**
+   * The method adds a game to the statistics.
+   * @param view The view of the game, whose cursor is rewound and run to the end.
+   */
+
+  public void add(GameView view) {
+    view.rewind();
+    int landlord = view.getLandlord();
+    Arrays.fill(game[LANDLORD], 0);
+    Arrays.fill(game[PEASANTS], 0);
+    while (view.next()) {
+      moves++;
+      long move = view.getMove();
+      if (move == GameRecord.PASS) {
+        passes++;
+        continue;
+      }
+      int code = HandClassifier.classify(CardSet.rankSignature(move), Long.bitCount(move));
+      if (code == HandClassifier.INVALID) {
+        throw new IllegalArgumentException("The record holds a play of no card type!");
+      }
+      game[view.getSeat() == landlord ? LANDLORD : PEASANTS][code >>> 4]++;
+    }
+    int winner = view.getSeat() == landlord ? LANDLORD : PEASANTS;
+    games++;
+    landlordWins += winner == LANDLORD ? 1 : 0;
+    for (int side = LANDLORD; side <= PEASANTS; side++) {
+      for (int type = 0; type < TYPES; type++) {
+        plays[side][type] += game[side][type];
+        if (side == winner) {
+          wins[side][type] += game[side][type];
+        }
+      }
+    }
+  }
+
+  /**
+   * The method adds the statistics of another accumulator to this one.
+   * @param other The other accumulator.
+   */
+
+  public void merge(CorpusStats other) {
+    for (int side = LANDLORD; side <= PEASANTS; side++) {
+      for (int type = 0; type < TYPES; type++) {
+        plays[side][type] += other.plays[side][type];
+        wins[side][type] += other.wins[side][type];
+      }
+    }
+    games += other.games;
+    landlordWins += other.landlordWins;
+    moves += other.moves;
+    passes += other.passes;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getLandlordWins() {
+    return landlordWins;
+  }
+
+  /**
+   * Get the number of turns, including passes.
+   * @return The number of turns.
+   */
+
+  public long getMoves() {
+    return moves;
+  }
+
+  public long getPasses() {
+    return passes;
+  }
+
+  /**
+   * Get how many plays of a type a side made.
+   * @param side LANDLORD or PEASANTS.
+   * @param type The type.
+   * @return The number of plays.
+   */
+
+  public long getPlays(int side, CardsType type) {
+    return plays[side][type.ordinal()];
+  }
+
+  /**
+   * Get how many plays of a type a side made in the games that side won.
+   * @param side LANDLORD or PEASANTS.
+   * @param type The type.
+   * @return The number of plays.
+   */
+
+  public long getWins(int side, CardsType type) {
+    return wins[side][type.ordinal()];
+  }
+
+  /**
+   * Get the share of the plays of a type by a side that were made in games the side won.
+   * @param side LANDLORD or PEASANTS.
+   * @param type The type.
+   * @return The win rate from 0 to 1, or 0 if the side never played the type.
+   */
+
+  public double getWinRate(int side, CardsType type) {
+    long count = getPlays(side, type);
+    return count == 0 ? 0 : (double) getWins(side, type) / count;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(String.format(
+            "%d games, landlord won %.1f%%, %.1f turns and %.1f passes per game%n", games,
+            100.0 * landlordWins / Math.max(1, games), (double) moves / Math.max(1, games),
+            (double) passes / Math.max(1, games)));
+    builder.append(String.format("%-18s %12s %9s %12s %9s%n", "type", "landlord", "win", "peasants",
+            "win"));
+    for (CardsType type : CardsType.values()) {
+      builder.append(String.format("%-18s %12d %8.1f%% %12d %8.1f%%%n", type,
+              getPlays(LANDLORD, type), 100 * getWinRate(LANDLORD, type),
+              getPlays(PEASANTS, type), 100 * getWinRate(PEASANTS, type)));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Scans record files in parallel and prints their statistics.
+   * @param args The paths of the record files.
+   * @throws IOException If a file cannot be mapped.
+   */
+
+  public static void main(String[] args) throws IOException {
+    Path[] paths = new Path[args.length];
+    for (int i = 0; i < args.length; i++) {
+      paths[i] = Path.of(args[i]);
+    }
+    long start = System.nanoTime();
+    GameCorpus corpus = GameCorpus.open(paths);
+    CorpusStats stats = corpus.parallelStream()
+            .collect(CorpusStats::new, CorpusStats::add, CorpusStats::merge);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.print(stats);
+    System.out.printf("%d records in %.2f s (%.1f M records/s)%n", corpus.size(), seconds,
+            corpus.size() / seconds / 1e6);
+  }
+}
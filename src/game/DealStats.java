@@ -0,0 +1,487 @@
+package game;
+
+import card.Deck;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The class estimates statistics of the deals of the game over a seeded sample of deals: how often
+ * a hand holds a Bomb or the Rocket, how many plays it needs at least (see HandDecomposer), and its
+ * longest runs of ranks, which are the longest chains it can play. It counts the hands of 17 cards
+ * of each seat, and the hands of 20 cards that each seat would hold as the landlord.
+ * Deal i of a job is dealt from BatchRunner.gameSeed(seed, i), which is the first deal of game i of
+ * a BatchRunner batch with the same seed, so every deal can be reproduced on its own. The deals
+ * are split into ranges by a ForkJoinPool, and each worker thread sums up its deals in a Tally of
+ * its own, which holds primitive counters only. The job runs in rounds: the tallies of the workers
+ * are merged once the pool is done with a round, and the total can then be written to a checkpoint
+ * file, from which a later job with the same seed and number of deals resumes.
+ * A DealStats is not thread safe, but runs a job on many threads.
+ */
+
+public final class DealStats {
+
+  private static final int MAGIC = 0x44534B50;
+  private static final int VERSION = 1;
+  private static final int CHUNK = 1024;
+  private static final int HANDS_PER_DEAL = 6;
+
+  private final int threads;
+  private final ClassificationCache shared = new ClassificationCache(20);
+  private final Queue<Worker> workers = new ConcurrentLinkedQueue<>();
+  private ThreadLocal<Worker> local;
+  private long resumed;
+
+  /**
+   * Create a job runner.
+   * @param threads The number of worker threads.
+   */
+
+  public DealStats(int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("A job needs at least one thread!");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * The method counts a sample of deals.
+   * @param deals The number of deals.
+   * @param seed The seed of the sample.
+   * @return The statistics.
+   */
+
+  public Tally run(long deals, long seed) {
+    try {
+      return run(deals, seed, null, Math.max(1, deals));
+    } catch (IOException e) {
+      throw new IllegalStateException("A job without a checkpoint cannot fail to write one.", e);
+    }
+  }
+
+  /**
+   * The method counts a sample of deals, and writes a checkpoint after every round. If the
+   * checkpoint exists already, the job resumes from it.
+   * @param deals The number of deals.
+   * @param seed The seed of the sample.
+   * @param checkpoint The checkpoint file, or null to keep none.
+   * @param round The number of deals of a round.
+   * @return The statistics.
+   * @throws IOException If the checkpoint cannot be read or written.
+   */
+
+  public Tally run(long deals, long seed, Path checkpoint, long round) throws IOException {
+    if (deals < 0 || round <= 0) {
+      throw new IllegalArgumentException("A job needs a positive round and no negative deals!");
+    }
+    Tally total = new Tally();
+    long next = 0;
+    if (checkpoint != null && Files.exists(checkpoint)) {
+      next = load(checkpoint, deals, seed, total);
+    }
+    resumed = next;
+    local = ThreadLocal.withInitial(this::newWorker);
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      while (next < deals) {
+        long end = Math.min(deals, next + round);
+        pool.invoke(new Range(seed, next, end));
+        for (Worker worker : workers) {
+          total.merge(worker.tally);
+          worker.tally.clear();
+        }
+        next = end;
+        if (checkpoint != null) {
+          save(checkpoint, deals, seed, next, total);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+      workers.clear();
+      local = null;
+    }
+    return total;
+  }
+
+  /**
+   * Get the number of deals that the last job resumed from its checkpoint.
+   * @return The number of deals, 0 if the job started from scratch.
+   */
+
+  public long getResumed() {
+    return resumed;
+  }
+
+  public ClassificationCache getCache() {
+    return shared;
+  }
+
+  /**
+   * The method creates the worker of the calling thread, which lives as long as the job, since the
+   * threads of a pool, the calling thread included, are only known once they run a task.
+   */
+
+  private Worker newWorker() {
+    Worker worker = new Worker();
+    workers.add(worker);
+    return worker;
+  }
+
+  private static long load(Path checkpoint, long deals, long seed, Tally total)
+          throws IOException {
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException(checkpoint + " is not a checkpoint of deal statistics.");
+      }
+      if (in.readLong() != seed || in.readLong() != deals) {
+        throw new IllegalArgumentException(checkpoint
+                + " is the checkpoint of a job with another seed or number of deals!");
+      }
+      long next = in.readLong();
+      total.read(in);
+      return next;
+    }
+  }
+
+  /**
+   * The method writes a checkpoint to a temporary file first and moves it over the checkpoint,
+   * so a job that is killed while writing leaves the last checkpoint behind.
+   */
+
+  private static void save(Path checkpoint, long deals, long seed, long next, Tally total)
+          throws IOException {
+    Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(seed);
+      out.writeLong(deals);
+      out.writeLong(next);
+      total.write(out);
+    }
+    Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Counts a sample of deals and prints the statistics.
+   * @param args The number of deals, the seed, the checkpoint file or - for none, the number of
+   *             threads and the number of deals per round, all optional.
+   * @throws IOException If the checkpoint cannot be read or written.
+   */
+
+  public static void main(String[] args) throws IOException {
+    long deals = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+    Path checkpoint = args.length > 2 && !args[2].equals("-") ? Path.of(args[2]) : null;
+    int threads = args.length > 3 ? Integer.parseInt(args[3])
+            : Runtime.getRuntime().availableProcessors();
+    long round = args.length > 4 ? Long.parseLong(args[4]) : 1L << 20;
+    DealStats job = new DealStats(threads);
+    long start = System.nanoTime();
+    Tally tally = job.run(deals, seed, checkpoint, round);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.print(tally);
+    System.out.printf("%d deals resumed, %d dealt in %.2f s (%.0f deals/s)%n", job.getResumed(),
+            deals - job.getResumed(), seconds, (deals - job.getResumed()) / seconds);
+    System.out.println("cache: " + job.getCache());
+  }
+
+  /**
+   * The task splits a range of deals in halves down to chunks, which a worker counts at once.
+   */
+
+  private final class Range extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final long seed;
+    private final long from;
+    private final long to;
+
+    Range(long seed, long from, long to) {
+      this.seed = seed;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= CHUNK) {
+        local.get().deal(seed, from, to);
+      } else {
+        long middle = (from + to) >>> 1;
+        invokeAll(new Range(seed, from, middle), new Range(seed, middle, to));
+      }
+    }
+  }
+
+  /**
+   * The class holds the state of a worker thread: its deck, its decomposer, its buffers and the
+   * tally of the deals it counted in the current round.
+   */
+
+  private final class Worker {
+    private final Deck deck = Deck.create(0L);
+    private final HandDecomposer decomposer = new HandDecomposer(16, shared);
+    private final HandFeatures features = HandFeatures.getInstance();
+    private final long[] dealt = new long[4];
+    private final long[] masks = new long[CHUNK * HANDS_PER_DEAL];
+    private final long[] signatures = new long[CHUNK * HANDS_PER_DEAL];
+    private final long[] packed = new long[CHUNK * HANDS_PER_DEAL];
+    private final Tally tally = new Tally();
+
+    void deal(long seed, long from, long to) {
+      int hands = 0;
+      for (long i = from; i < to; i++) {
+        deck.reset(BatchRunner.gameSeed(seed, i));
+        deck.dealCardForThreePlayer(dealt);
+        for (int seat = 0; seat < 3; seat++) {
+          masks[hands + seat] = dealt[seat];
+          masks[hands + 3 + seat] = dealt[seat] | dealt[3];
+        }
+        hands += HANDS_PER_DEAL;
+      }
+      features.signatures(masks, signatures, hands);
+      features.features(masks, packed, hands);
+      for (int h = 0; h < hands; h += HANDS_PER_DEAL) {
+        boolean any = false;
+        for (int k = 0; k < HANDS_PER_DEAL; k++) {
+          int kind = k < 3 ? Tally.SEAT : Tally.LANDLORD;
+          long f = packed[h + k];
+          tally.hand(kind, f, decomposer.minPlays(signatures[h + k]));
+          any |= kind == Tally.SEAT && (HandFeatures.get(f, HandFeatures.BOMBS)
+                  | HandFeatures.get(f, HandFeatures.ROCKET)) != 0;
+        }
+        tally.deal(any);
+      }
+    }
+  }
+
+  /**
+   * The class counts deals and their hands with primitive counters. Hands are counted by kind:
+   * SEAT for the 17 cards of a seat, LANDLORD for the 20 cards of a seat with the landlord cards.
+   */
+
+  public static final class Tally {
+    public static final int SEAT = 0;
+    public static final int LANDLORD = 1;
+
+    private static final int KINDS = 2;
+    private static final int MAX_PLAYS = HandClassifier.MAX_PLAY_SIZE + 1;
+    private static final int MAX_RUN = 13;
+
+    private long deals;
+    private long bombDeals;
+    private final long[] hands = new long[KINDS];
+    private final long[] bombs = new long[KINDS];
+    private final long[] rockets = new long[KINDS];
+    private final long[] either = new long[KINDS];
+    private final long[][] minPlays = new long[KINDS][MAX_PLAYS];
+    private final long[][] soloRuns = new long[KINDS][MAX_RUN];
+    private final long[][] pairRuns = new long[KINDS][MAX_RUN];
+    private final long[][] trioRuns = new long[KINDS][MAX_RUN];
+
+    void deal(boolean bomb) {
+      deals++;
+      if (bomb) {
+        bombDeals++;
+      }
+    }
+
+    void hand(int kind, long features, int plays) {
+      int bomb = HandFeatures.get(features, HandFeatures.BOMBS) > 0 ? 1 : 0;
+      int rocket = HandFeatures.get(features, HandFeatures.ROCKET);
+      hands[kind]++;
+      bombs[kind] += bomb;
+      rockets[kind] += rocket;
+      either[kind] += bomb | rocket;
+      minPlays[kind][plays]++;
+      soloRuns[kind][HandFeatures.get(features, HandFeatures.SOLO_CHAIN)]++;
+      pairRuns[kind][HandFeatures.get(features, HandFeatures.PAIR_CHAIN)]++;
+      trioRuns[kind][HandFeatures.get(features, HandFeatures.TRIO_CHAIN)]++;
+    }
+
+    /**
+     * The method adds the counters of another tally to this one.
+     * @param other The other tally.
+     */
+
+    public void merge(Tally other) {
+      deals += other.deals;
+      bombDeals += other.bombDeals;
+      for (int kind = 0; kind < KINDS; kind++) {
+        hands[kind] += other.hands[kind];
+        bombs[kind] += other.bombs[kind];
+        rockets[kind] += other.rockets[kind];
+        either[kind] += other.either[kind];
+        add(minPlays[kind], other.minPlays[kind]);
+        add(soloRuns[kind], other.soloRuns[kind]);
+        add(pairRuns[kind], other.pairRuns[kind]);
+        add(trioRuns[kind], other.trioRuns[kind]);
+      }
+    }
+
+    public void clear() {
+      deals = 0;
+      bombDeals = 0;
+      for (long[] counters : counters()) {
+        Arrays.fill(counters, 0L);
+      }
+    }
+
+    public long getDeals() {
+      return deals;
+    }
+
+    /**
+     * Get the number of deals in which a seat holds a Bomb or the Rocket with its 17 cards.
+     * @return The number of deals.
+     */
+
+    public long getBombDeals() {
+      return bombDeals;
+    }
+
+    public long getHands(int kind) {
+      return hands[kind];
+    }
+
+    public long getBombs(int kind) {
+      return bombs[kind];
+    }
+
+    public long getRockets(int kind) {
+      return rockets[kind];
+    }
+
+    /**
+     * Get the number of hands of a kind that need a number of plays at least.
+     * @param kind SEAT or LANDLORD.
+     * @param plays The number of plays.
+     * @return The number of hands.
+     */
+
+    public long getMinPlays(int kind, int plays) {
+      return minPlays[kind][plays];
+    }
+
+    /**
+     * Get the number of hands of a kind whose longest run of ranks of at least some cards has a
+     * length.
+     * @param kind SEAT or LANDLORD.
+     * @param cards 1, 2 or 3 cards of each rank of the run.
+     * @param length The length of the run.
+     * @return The number of hands.
+     */
+
+    public long getRuns(int kind, int cards, int length) {
+      long[][] runs = cards == 1 ? soloRuns : cards == 2 ? pairRuns : trioRuns;
+      return runs[kind][length];
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeLong(deals);
+      out.writeLong(bombDeals);
+      for (long[] counters : counters()) {
+        for (long counter : counters) {
+          out.writeLong(counter);
+        }
+      }
+    }
+
+    void read(DataInputStream in) throws IOException {
+      deals = in.readLong();
+      bombDeals = in.readLong();
+      for (long[] counters : counters()) {
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] = in.readLong();
+        }
+      }
+    }
+
+    /**
+     * Get the probabilities, with their standard errors, and the distributions of the tally.
+     * @return The report.
+     */
+
+    @Override
+    public String toString() {
+      StringBuilder report = new StringBuilder();
+      report.append(String.format("%d deals, a seat holds a Bomb or the Rocket in %s%n", deals,
+              share(bombDeals, deals)));
+      for (int kind = 0; kind < KINDS; kind++) {
+        long n = hands[kind];
+        report.append(String.format("%s hands: Bomb %s, Rocket %s, either %s%n",
+                kind == SEAT ? "17 card" : "20 card", share(bombs[kind], n),
+                share(rockets[kind], n), share(either[kind], n)));
+        report.append("  fewest plays:").append(histogram(minPlays[kind], n))
+                .append(String.format("%n  solo chain %s, pair chain %s, airplane %s%n",
+                        share(atLeast(soloRuns[kind], 5), n), share(atLeast(pairRuns[kind], 3), n),
+                        share(atLeast(trioRuns[kind], 2), n)));
+        report.append("  longest solo run:").append(histogram(soloRuns[kind], n))
+                .append("\n  longest pair run:").append(histogram(pairRuns[kind], n))
+                .append("\n  longest trio run:").append(histogram(trioRuns[kind], n))
+                .append(System.lineSeparator());
+      }
+      return report.toString();
+    }
+
+    private long[][] counters() {
+      long[][] counters = new long[4 + 4 * KINDS][];
+      counters[0] = hands;
+      counters[1] = bombs;
+      counters[2] = rockets;
+      counters[3] = either;
+      for (int kind = 0; kind < KINDS; kind++) {
+        counters[4 + 4 * kind] = minPlays[kind];
+        counters[5 + 4 * kind] = soloRuns[kind];
+        counters[6 + 4 * kind] = pairRuns[kind];
+        counters[7 + 4 * kind] = trioRuns[kind];
+      }
+      return counters;
+    }
+
+    private static void add(long[] to, long[] from) {
+      for (int i = 0; i < to.length; i++) {
+        to[i] += from[i];
+      }
+    }
+
+    private static long atLeast(long[] histogram, int from) {
+      long sum = 0;
+      for (int i = from; i < histogram.length; i++) {
+        sum += histogram[i];
+      }
+      return sum;
+    }
+
+    private static String share(long count, long total) {
+      double p = total == 0 ? 0.0 : (double) count / total;
+      double error = total == 0 ? 0.0 : Math.sqrt(p * (1 - p) / total);
+      return String.format("%.5f +- %.5f", p, error);
+    }
+
+    private static String histogram(long[] counts, long total) {
+      StringBuilder line = new StringBuilder();
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] != 0) {
+          line.append(String.format(" %d=%.4f", i, (double) counts[i] / total));
+        }
+      }
+      return line.toString();
+    }
+  }
+}
@@ -0,0 +1,375 @@
+package game;
+
+import card.Card;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.LongPredicate;
+
+/**
+ * The class solves positions in which every hand is known, which is the case in endgames once the
+ * cards of the other seats can be deduced or sampled. The game is won or lost, so the solver runs
+ * a minimax search over win and loss only: the side to move wins if one of its moves wins, and
+ * loses once every move has been refuted. The search stops at the first winning move, which is the
+ * alpha-beta cutoff of a game with two values, and tries the moves that empty the hand first,
+ * then the moves with the most cards.
+ * Solved positions are kept in a transposition table of bounded size, keyed by a Zobrist hash of
+ * the hands, the seat to move, the play to beat and the landlord, since the table holds the side
+ * that wins and not whether the seat to move does. The table is set associative with four entries
+ * per bucket, and a full bucket evicts the entry whose subtree was the cheapest to search.
+ * Values in the table are exact, so the table stays valid from one search to the next.
+ * Moves are the ones of MoveGenerator, so the solver follows the CardsType rules.
+ * An EndgameSolver is not thread safe. Use one solver per thread.
+ */
+
+public final class EndgameSolver {
+
+  public static final int PEASANTS = 0;
+  public static final int LANDLORD = 1;
+  public static final int UNKNOWN = -1;
+
+  /**
+   * The move returned by winningMove() when the side to move cannot force a win.
+   */
+
+  public static final long NO_MOVE = -1L;
+
+  private static final long[][] HAND_KEYS = new long[GameState.SEATS][Card.COUNT];
+  private static final long[] LAST_KEYS = new long[Card.COUNT];
+  private static final long[] LAST_SEAT_KEYS = new long[GameState.SEATS];
+  private static final long[] TURN_KEYS = new long[GameState.SEATS];
+  private static final long[] LANDLORD_KEYS = new long[GameState.SEATS];
+
+  static {
+    SplittableRandom random = new SplittableRandom(0x5EED_2B1D_0C0FL);
+    for (long[] keys : HAND_KEYS) {
+      fill(keys, random);
+    }
+    fill(LAST_KEYS, random);
+    fill(LAST_SEAT_KEYS, random);
+    fill(TURN_KEYS, random);
+    fill(LANDLORD_KEYS, random);
+  }
+
+  private final Table table;
+  private final MoveGenerator generator = new MoveGenerator();
+  private final LongPredicate pusher = this::push;
+  private Position[] children = new Position[0];
+  private long[] stack = new long[256];
+  private int[] scores = new int[256];
+  private int top;
+  private long nodes;
+  private long limit;
+
+  /**
+   * Create a solver.
+   * @param tableBits The table holds 2^tableBits entries, with tableBits from 2 to 30.
+   */
+
+  public EndgameSolver(int tableBits) {
+    if (tableBits < 2 || tableBits > 30) {
+      throw new IllegalArgumentException("The table size must be between 2^2 and 2^30!");
+    }
+    this.table = new Table(tableBits);
+  }
+
+  private static void fill(long[] keys, SplittableRandom random) {
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = random.nextLong();
+    }
+  }
+
+  /**
+   * The method solves a position.
+   * @param position The position.
+   * @return LANDLORD or PEASANTS, the side that wins with perfect play.
+   */
+
+  public int solve(Position position) {
+    return solve(position, Long.MAX_VALUE);
+  }
+
+  /**
+   * The method solves a position, giving up after a number of nodes.
+   * @param position The position.
+   * @param nodeLimit The maximum number of nodes to search.
+   * @return LANDLORD or PEASANTS, the side that wins with perfect play, or UNKNOWN if the search
+   *         gave up.
+   */
+
+  public int solve(Position position, long nodeLimit) {
+    start(nodeLimit);
+    return search(position, handsKey(position), 0);
+  }
+
+  /**
+   * Check if the side to move can force a win.
+   * @param position The position.
+   * @return True if the side to move wins with perfect play.
+   */
+
+  public boolean canWin(Position position) {
+    return solve(position) == side(position);
+  }
+
+  /**
+   * The method finds a move that forces a win for the side to move.
+   * @param position The position.
+   * @param nodeLimit The maximum number of nodes to search.
+   * @return The bit mask of a winning move, or Position.PASS, or NO_MOVE if the side to move
+   *         cannot force a win or the search gave up.
+   */
+
+  public long winningMove(Position position, long nodeLimit) {
+    if (position.isOver()) {
+      return NO_MOVE;
+    }
+    start(nodeLimit);
+    int good = side(position);
+    long hands = handsKey(position);
+    int from = top;
+    int to = expand(position);
+    Position child = child(0);
+    long result = NO_MOVE;
+    for (int i = from; i < to; i++) {
+      long move = stack[i];
+      child.copyFrom(position);
+      child.play(move);
+      if (search(child, childKey(hands, position.getTurn(), move), 1) == good) {
+        result = move;
+        break;
+      }
+    }
+    top = from;
+    return result;
+  }
+
+  /**
+   * Get the number of nodes searched by the last call to solve() or winningMove().
+   * @return The number of nodes.
+   */
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  public Table getTable() {
+    return table;
+  }
+
+  private void start(long nodeLimit) {
+    nodes = 0;
+    limit = nodeLimit;
+    top = 0;
+  }
+
+  private int search(Position position, long hands, int ply) {
+    if (position.isOver()) {
+      return position.getWinner() == position.getLandlord() ? LANDLORD : PEASANTS;
+    }
+    if (++nodes > limit) {
+      return UNKNOWN;
+    }
+    long key = hands ^ contextKey(position);
+    int cached = table.probe(key);
+    if (cached != UNKNOWN) {
+      return cached;
+    }
+    long before = nodes;
+    int good = side(position);
+    int from = top;
+    int to = expand(position);
+    int result = good ^ 1;
+    if (to > from && stack[from] == position.getHand(position.getTurn())) {
+      result = good;
+    } else {
+      Position child = child(ply + 1);
+      for (int i = from; i < to; i++) {
+        long move = stack[i];
+        child.copyFrom(position);
+        child.play(move);
+        int value = search(child, childKey(hands, position.getTurn(), move), ply + 1);
+        if (value != (good ^ 1)) {
+          result = value;
+          break;
+        }
+      }
+    }
+    top = from;
+    if (result != UNKNOWN) {
+      table.store(key, result, nodes - before);
+    }
+    return result;
+  }
+
+  /**
+   * The method pushes the moves of the seat to move onto the stack, PASS included, and orders
+   * them: the move that empties the hand first, then by descending size, PASS last.
+   * @return The end of the moves on the stack.
+   */
+
+  private int expand(Position position) {
+    int from = top;
+    position.moves(generator, pusher);
+    if (!position.isLeading()) {
+      push(Position.PASS);
+    }
+    long hand = position.getHand(position.getTurn());
+    int end = top;
+    if (scores.length < end) {
+      scores = Arrays.copyOf(scores, stack.length);
+    }
+    for (int i = from; i < end; i++) {
+      long move = stack[i];
+      scores[i] = move == hand ? Integer.MAX_VALUE : Long.bitCount(move);
+    }
+    for (int i = from + 1; i < end; i++) {
+      long move = stack[i];
+      int score = scores[i];
+      int j = i - 1;
+      while (j >= from && scores[j] < score) {
+        stack[j + 1] = stack[j];
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      stack[j + 1] = move;
+      scores[j + 1] = score;
+    }
+    return end;
+  }
+
+  private boolean push(long move) {
+    if (top == stack.length) {
+      stack = Arrays.copyOf(stack, top * 2);
+    }
+    stack[top++] = move;
+    return true;
+  }
+
+  private Position child(int ply) {
+    if (ply >= children.length) {
+      int from = children.length;
+      children = Arrays.copyOf(children, Math.max(16, ply * 2));
+      for (int i = from; i < children.length; i++) {
+        children[i] = new Position(new long[GameState.SEATS], 0, 0, 0L, -1);
+      }
+    }
+    return children[ply];
+  }
+
+  private static int side(Position position) {
+    return position.getTurn() == position.getLandlord() ? LANDLORD : PEASANTS;
+  }
+
+  private static long handsKey(Position position) {
+    long key = 0L;
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      key ^= cardsKey(HAND_KEYS[seat], position.getHand(seat));
+    }
+    return key;
+  }
+
+  private static long childKey(long hands, int seat, long move) {
+    return move == Position.PASS ? hands : hands ^ cardsKey(HAND_KEYS[seat], move);
+  }
+
+  private static long contextKey(Position position) {
+    long key = TURN_KEYS[position.getTurn()] ^ LANDLORD_KEYS[position.getLandlord()];
+    if (!position.isLeading()) {
+      key ^= cardsKey(LAST_KEYS, position.getLastPlay()) ^ LAST_SEAT_KEYS[position.getLastSeat()];
+    }
+    return key;
+  }
+
+  private static long cardsKey(long[] keys, long cards) {
+    long key = 0L;
+    for (; cards != 0L; cards &= cards - 1) {
+      key ^= keys[Long.numberOfTrailingZeros(cards)];
+    }
+    return key;
+  }
+
+  /**
+   * The class is the transposition table of a solver. Each entry holds a 64 bit key, the winning
+   * side and the number of nodes it took to solve the position, which decides the evictions.
+   */
+
+  public static final class Table {
+    private static final int WAYS = 4;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int shift;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    Table(int bits) {
+      keys = new long[1 << bits];
+      entries = new long[1 << bits];
+      shift = 64 - (bits - 2);
+    }
+
+    int probe(long key) {
+      int base = bucket(key);
+      for (int i = base; i < base + WAYS; i++) {
+        if (keys[i] == key && entries[i] != 0L) {
+          hits++;
+          return (int) (entries[i] & 1);
+        }
+      }
+      misses++;
+      return UNKNOWN;
+    }
+
+    void store(long key, int value, long work) {
+      int base = bucket(key);
+      int victim = base;
+      for (int i = base; i < base + WAYS; i++) {
+        if (entries[i] == 0L || keys[i] == key) {
+          victim = i;
+          break;
+        } else if (entries[i] < entries[victim]) {
+          victim = i;
+        }
+      }
+      if (entries[victim] != 0L && keys[victim] != key) {
+        evictions++;
+      }
+      keys[victim] = key;
+      entries[victim] = Math.min(work + 1, Long.MAX_VALUE >>> 1) << 1 | value;
+    }
+
+    private int bucket(long key) {
+      return shift == 64 ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) * WAYS;
+    }
+
+    /**
+     * The method empties the table and resets its statistics.
+     */
+
+    public void clear() {
+      Arrays.fill(keys, 0L);
+      Arrays.fill(entries, 0L);
+      hits = 0;
+      misses = 0;
+      evictions = 0;
+    }
+
+    public int capacity() {
+      return keys.length;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    public long getEvictions() {
+      return evictions;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package game;
+
+import card.CardSet;
+import card.Deck;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import record.GameRecord;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The class drives a complete Fight the Landlord game between three strategies: it deals the
+ * cards, runs the landlord bidding, lets the seats play in turn until one of them runs out of
+ * cards, and reports the result.
+ * The bidding follows the rules of Bidding, starting from a random seat, and a bid that is not
+ * allowed counts as a pass. The highest bidder becomes the landlord and takes the three landlord
+ * cards. If every seat passes, the cards are dealt again.
+ * The landlord leads the first play. A seat may pass unless it leads, and once both other seats
+ * have passed, the seat that made the last play leads again.
+ * Every game has a seed, which alone decides the deals and the first bidders, and which is kept in
+ * the record of the game. Given the same strategies, play(long) with the seed of a record plays
+ * that game again, move for move.
+ * While metrics are enabled, the engine times every bid and play decision of a strategy, in the
+ * histograms strategy.[class].bid and strategy.[class].play.
+ * A GameEngine owns its deck and state, so it is not thread safe. Run one engine per thread.
+ */
+
+public class GameEngine {
+
+  /**
+   * After that many redeals in a row, the first bidder becomes the landlord with a bid of 1, so
+   * that strategies that never bid cannot stall the engine.
+   */
+
+  public static final int MAX_REDEALS = 16;
+
+  private final Strategy[] strategies;
+  private final Deck deck;
+  private final RandomGenerator random;
+  private final GameState state = new GameState();
+  private final Bidding bidding = new Bidding();
+  private final GameRecord record = new GameRecord();
+  private final PlayerImpl[] players = new PlayerImpl[GameState.SEATS];
+  private final long[] dealt = new long[GameState.SEATS + 1];
+  private final LatencyHistogram[] bidTimes = new LatencyHistogram[GameState.SEATS];
+  private final LatencyHistogram[] playTimes = new LatencyHistogram[GameState.SEATS];
+
+  public GameEngine(Strategy first, Strategy second, Strategy third, RandomGenerator random) {
+    this.strategies = new Strategy[] {first, second, third};
+    this.random = random;
+    this.deck = Deck.create(random);
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      String name = "strategy." + strategies[seat].getClass().getSimpleName();
+      bidTimes[seat] = Metrics.getInstance().histogram(name + ".bid");
+      playTimes[seat] = Metrics.getInstance().histogram(name + ".play");
+    }
+  }
+
+  /**
+   * Get the state of the current, or the last finished, game.
+   * @return The state.
+   */
+
+  public GameState getState() {
+    return state;
+  }
+
+  /**
+   * Get the record of the current, or the last finished, game. The record is reused by the next
+   * game, so copy it to keep it.
+   * @return The record.
+   */
+
+  public GameRecord getRecord() {
+    return record;
+  }
+
+  /**
+   * The method plays one complete game, with a seed drawn from the generator of the engine.
+   * @return The result of the game.
+   */
+
+  public Result play() {
+    return play(random.nextLong());
+  }
+
+  /**
+   * The method plays one complete game from a seed.
+   * @param seed The seed of the game.
+   * @return The result of the game.
+   */
+
+  public Result play(long seed) {
+    int redeals = bid(seed);
+    record.setSeed(seed);
+    int landlord = state.getLandlord();
+    state.setHand(landlord, state.getHand(landlord).union(state.getKitty()));
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      players[seat] = new PlayerImpl(state.getHand(seat));
+    }
+
+    int turn = landlord;
+    int turns = 0;
+    int bombs = 0;
+    while (true) {
+      state.setTurn(turn);
+      if (state.getLastSeat() == turn) {
+        state.clearLastPlay();
+      }
+      long start = Metrics.start();
+      CardSet selected = strategies[turn].play(state, turn);
+      playTimes[turn].recordSince(start);
+      turns++;
+      if (selected == null || selected.isEmpty()) {
+        if (state.getLastPlay() == null) {
+          throw new IllegalStateException("Seat " + turn + " cannot pass when it leads.");
+        }
+        record.addMove(GameRecord.PASS);
+      } else {
+        PlayerImpl.Plays play = players[turn].playCards(state.getLastPlay(), selected);
+        state.recordPlay(turn, play);
+        record.addMove(selected.mask());
+        state.setHand(turn, players[turn].getHandSet());
+        if (play.getType() == CardsType.Bomb || play.getType() == CardsType.Rocket) {
+          bombs++;
+        }
+        if (players[turn].getHandSet().isEmpty()) {
+          return new Result(landlord, state.getBid(), turn, turns, bombs, redeals);
+        }
+      }
+      turn = (turn + 1) % GameState.SEATS;
+    }
+  }
+
+  /**
+   * The method deals the cards and runs the bidding until a landlord is found. Deal r of a game
+   * is shuffled by the seed of the game plus r times the golden gamma of SplitMix64, and its first
+   * bidder is that seed modulo 3.
+   * @param seed The seed of the game.
+   * @return The number of redeals.
+   */
+
+  private int bid(long seed) {
+    for (int redeals = 0; ; redeals++) {
+      long dealSeed = seed + redeals * 0x9E3779B97F4A7C15L;
+      deck.reset(dealSeed);
+      deck.dealCardForThreePlayer(dealt);
+      state.deal(CardSet.of(dealt[0]), CardSet.of(dealt[1]), CardSet.of(dealt[2]),
+              CardSet.of(dealt[3]));
+      bidding.start((int) Long.remainderUnsigned(dealSeed, GameState.SEATS));
+      record.reset();
+      record.setDeal(dealt);
+      record.setFirstBidder(bidding.getFirst());
+      while (!bidding.isOver()) {
+        int seat = bidding.getTurn();
+        long start = Metrics.start();
+        int bid = strategies[seat].bid(state, seat);
+        bidTimes[seat].recordSince(start);
+        bid = bidding.isAllowed(bid) ? bid : Bidding.PASS;
+        bidding.bid(seat, bid);
+        record.addBid(bid);
+        if (bidding.getLandlord() == seat) {
+          state.setBid(seat, bidding.getBid());
+        }
+      }
+      if (!bidding.isRedeal()) {
+        return redeals;
+      } else if (redeals == MAX_REDEALS) {
+        state.setBid(bidding.getFirst(), 1);
+        return redeals;
+      }
+    }
+  }
+
+  /**
+   * The class records the result of a game.
+   */
+
+  public static class Result {
+    private final int landlord;
+    private final int bid;
+    private final int winner;
+    private final int turns;
+    private final int bombs;
+    private final int redeals;
+
+    Result(int landlord, int bid, int winner, int turns, int bombs, int redeals) {
+      this.landlord = landlord;
+      this.bid = bid;
+      this.winner = winner;
+      this.turns = turns;
+      this.bombs = bombs;
+      this.redeals = redeals;
+    }
+
+    public int getLandlord() {
+      return landlord;
+    }
+
+    public int getBid() {
+      return bid;
+    }
+
+    /**
+     * Get the seat that ran out of cards first.
+     * @return The winning seat.
+     */
+
+    public int getWinner() {
+      return winner;
+    }
+
+    public boolean isLandlordWin() {
+      return winner == landlord;
+    }
+
+    /**
+     * Get the number of turns, including passes.
+     * @return The number of turns.
+     */
+
+    public int getTurns() {
+      return turns;
+    }
+
+    /**
+     * Get the number of Bombs and Rockets played.
+     * @return The number of Bombs and Rockets.
+     */
+
+    public int getBombs() {
+      return bombs;
+    }
+
+    public int getRedeals() {
+      return redeals;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package game;
+
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+
+/**
+ * The class holds the metrics of the rules of the game: how CardsType.determineType() classifies
+ * plays, by resulting type or as invalid, and how PlayValidator, which PlayerImpl.playCards()
+ * goes through, accepts or rejects them, by reason. Both are counted on every call, and timed on
+ * one call in Metrics.SAMPLE_RATE.
+ */
+
+final class GameMetrics {
+
+  static final LatencyHistogram DETERMINE_TYPE =
+          Metrics.getInstance().histogram("cardsType.determineType");
+  static final Counter INVALID = Metrics.getInstance().counter("cardsType.determineType.invalid");
+  static final LatencyHistogram PLAY_CARDS = Metrics.getInstance().histogram("player.playCards");
+  static final Counter ACCEPTED = Metrics.getInstance().counter("player.playCards.accepted");
+  static final Counter NOT_IN_HAND =
+          Metrics.getInstance().counter("player.playCards.rejected.notInHand");
+  static final Counter NOT_VALID =
+          Metrics.getInstance().counter("player.playCards.rejected.notValid");
+  static final Counter NOT_HIGHER =
+          Metrics.getInstance().counter("player.playCards.rejected.notHigher");
+
+  private static final Counter[] TYPES = new Counter[CardsType.values().length];
+
+  static {
+    for (CardsType type : CardsType.values()) {
+      TYPES[type.ordinal()] = Metrics.getInstance().counter("cardsType.determineType." + type);
+    }
+  }
+
+  private GameMetrics() {
+  }
+
+  /**
+   * The method counts a classification and records its time.
+   * @param code The classification code, see HandClassifier.
+   * @param start The start taken by Metrics.sample().
+   */
+
+  static void classified(int code, long start) {
+    if (Metrics.isEnabled()) {
+      (code == HandClassifier.INVALID ? INVALID : TYPES[code >>> 4]).increment();
+      DETERMINE_TYPE.recordSince(start);
+    }
+  }
+
+  /**
+   * The method counts a call to playCards() and records its time.
+   * @param outcome ACCEPTED, or the counter of the reason of the rejection.
+   * @param start The start taken by Metrics.sample().
+   */
+
+  static void played(Counter outcome, long start) {
+    if (Metrics.isEnabled()) {
+      outcome.increment();
+      PLAY_CARDS.recordSince(start);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package game;
+
+import card.CardSet;
+
+/**
+ * The class records the state of a single Fight the Landlord game, as it is driven by GameEngine.
+ * The three seats are numbered 0, 1 and 2, and play proceeds in that order.
+ * The state exposes every hand, so that an engine can be inspected after a game. Strategies shall
+ * only look at their own hand and the public information: hand sizes, the landlord, the bid, the
+ * landlord cards, the cards played so far and the last play.
+ */
+
+public class GameState {
+
+  public static final int SEATS = 3;
+
+  private final CardSet[] hands = new CardSet[SEATS];
+  private CardSet kitty = CardSet.EMPTY;
+  private CardSet played = CardSet.EMPTY;
+  private int landlord = -1;
+  private int bid = 0;
+  private int turn = 0;
+  private PlayerImpl.Plays lastPlay = null;
+  private int lastSeat = -1;
+
+  void deal(CardSet first, CardSet second, CardSet third, CardSet landlordCards) {
+    hands[0] = first;
+    hands[1] = second;
+    hands[2] = third;
+    kitty = landlordCards;
+    played = CardSet.EMPTY;
+    landlord = -1;
+    bid = 0;
+    turn = 0;
+    lastPlay = null;
+    lastSeat = -1;
+  }
+
+  void setBid(int seat, int bid) {
+    this.landlord = seat;
+    this.bid = bid;
+  }
+
+  void setHand(int seat, CardSet hand) {
+    hands[seat] = hand;
+  }
+
+  void setTurn(int seat) {
+    this.turn = seat;
+  }
+
+  void recordPlay(int seat, PlayerImpl.Plays play) {
+    lastPlay = play;
+    lastSeat = seat;
+    played = played.union(play.getCardSet());
+  }
+
+  void clearLastPlay() {
+    lastPlay = null;
+    lastSeat = -1;
+  }
+
+  /**
+   * Get the hand of a seat.
+   * @param seat The seat, from 0 to 2.
+   * @return The cards that the seat holds.
+   */
+
+  public CardSet getHand(int seat) { return hands[seat]; }
+
+  public int getHandSize(int seat) { return hands[seat].size(); }
+
+  /**
+   * Get the three landlord cards. They are revealed once the landlord is determined.
+   * @return The landlord cards.
+   */
+
+  public CardSet getKitty() { return kitty; }
+
+  /**
+   * Get every card that has been played in the game so far.
+   * @return The played cards.
+   */
+
+  public CardSet getPlayed() { return played; }
+
+  /**
+   * Get the seat of the landlord.
+   * @return The landlord's seat, or -1 during the bidding.
+   */
+
+  public int getLandlord() { return landlord; }
+
+  public int getBid() { return bid; }
+
+  public int getTurn() { return turn; }
+
+  /**
+   * Get the play that the seat to move has to beat.
+   * @return The last play, or null if the seat to move leads.
+   */
+
+  public PlayerImpl.Plays getLastPlay() { return lastPlay; }
+
+  /**
+   * Get the seat that made the last play.
+   * @return The seat, or -1 if the seat to move leads.
+   */
+
+  public int getLastSeat() { return lastSeat; }
+
+  /**
+   * Check if two seats play on the same side. The two peasants are partners.
+   * @param seat One seat.
+   * @param other The other seat.
+   * @return True if both seats are peasants, or if they are the same seat.
+   */
+
+  public boolean isPartner(int seat, int other) {
+    return seat == other || (seat != landlord && other != landlord);
+  }
+}
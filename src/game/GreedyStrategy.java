@@ -0,0 +1,101 @@
+package game;
+
+import card.CardSet;
+
+import java.util.function.LongPredicate;
+
+/**
+ * The class implements a simple and fast strategy, which is meant for self-play and rollouts.
+ * When it leads, it plays the move that gets rid of the most cards, keeping Bombs and the Rocket
+ * for last. When it follows, it passes on its partner, and otherwise plays the smallest move that
+ * beats the last play. MoveGenerator lists Bombs and the Rocket after every other move, so they
+ * are used only if nothing else beats the last play.
+ * It bids what a HandEvaluator says its hand is worth, by default a HistogramEvaluator.
+ * A GreedyStrategy is not thread safe. Use one instance per game engine.
+ */
+
+public class GreedyStrategy implements Strategy {
+
+  private final HandEvaluator evaluator;
+  private final MoveGenerator generator = new MoveGenerator();
+  private final LongPredicate leadVisitor = this::visitLead;
+  private final long[] first = new long[1];
+  private long best;
+  private int bestScore;
+
+  public GreedyStrategy() {
+    this(new HistogramEvaluator());
+  }
+
+  /**
+   * Create a strategy that bids what an evaluator says its hand is worth.
+   * @param evaluator The evaluator.
+   */
+
+  public GreedyStrategy(HandEvaluator evaluator) {
+    this.evaluator = evaluator;
+  }
+
+  @Override
+  public int bid(GameState state, int seat) {
+    int bid = evaluator.bid(state.getHand(seat).rankSignature());
+    return bid > state.getBid() ? bid : 0;
+  }
+
+  @Override
+  public CardSet play(GameState state, int seat) {
+    PlayerImpl.Plays last = state.getLastPlay();
+    boolean partner = last != null && state.isPartner(seat, state.getLastSeat());
+    long move = choose(state.getHand(seat).mask(), last == null ? 0L : last.getCardSet().mask(),
+            partner);
+    return move == Position.PASS ? null : CardSet.of(move);
+  }
+
+  /**
+   * The method decides the move of the seat to move in a position, the same way as play().
+   * @param position The position.
+   * @return The bit mask of the move, or Position.PASS.
+   */
+
+  public long choose(Position position) {
+    int lastSeat = position.getLastSeat();
+    return choose(position.getHand(position.getTurn()), position.getLastPlay(),
+            lastSeat >= 0 && position.isPartner(position.getTurn(), lastSeat));
+  }
+
+  /**
+   * The method decides a move from the hand of the seat to move and the play to beat.
+   * @param hand The bit mask of the hand.
+   * @param last The bit mask of the play to beat, or 0 if the seat leads.
+   * @param partner True if the play to beat was made by the partner of the seat.
+   * @return The bit mask of the move, or Position.PASS.
+   */
+
+  public long choose(long hand, long last, boolean partner) {
+    if (partner) {
+      return Position.PASS;
+    }
+    if (last != 0L) {
+      return generator.generate(hand, last, first) == 0 ? Position.PASS : first[0];
+    }
+    best = 0L;
+    bestScore = Integer.MIN_VALUE;
+    generator.generate(hand, 0L, leadVisitor);
+    return best;
+  }
+
+  private boolean visitLead(long move) {
+    int score = Long.bitCount(move) - (isBomb(move) ? 100 : 0);
+    if (score > bestScore) {
+      best = move;
+      bestScore = score;
+    }
+    return true;
+  }
+
+  private static boolean isBomb(long move) {
+    CardsType type = HandClassifier.typeOf(
+            ShapeTable.getInstance().lookup(CardSet.rankSignature(move)));
+    return type == CardsType.Bomb || type == CardsType.Rocket;
+  }
+}
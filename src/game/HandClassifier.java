@@ -0,0 +1,317 @@
+package game;
+
+import card.Card;
+import card.CardSet;
+import card.Rank;
+
+import java.util.List;
+
+/**
+ * The class classifies a card play from its rank histogram in a single pass.
+ * A rank histogram is an array of 15 slots, indexed by Rank.ordinal(), that holds how many cards
+ * of each rank are contained in the play. Since every card type of the game is defined by the
+ * shape of that histogram only, the type and the prime rank of a play can be derived from it
+ * without sorting or grouping the cards.
+ * The same histogram can also be given as a rank signature, a long that holds four bits per rank.
+ * A classification result is packed into an int code: the ordinal of the CardsType in the upper
+ * bits, and the ordinal of the prime rank in the lower four bits. INVALID denotes a play that is
+ * not of any card type. No play can hold more than 20 cards, which is the size of the landlord's
+ * starting hand.
+ */
+
+public final class HandClassifier {
+
+  public static final int INVALID = -1;
+  public static final int RANKS = 15;
+  public static final int MAX_PLAY_SIZE = 20;
+  public static final long INVALID_SIGNATURE = -1L;
+  public static final int NO_PLAY = 0;
+
+  private static final CardsType[] TYPES = CardsType.values();
+  private static final Rank[] RANK_VALUES = Rank.values();
+  private static final int TWO = Rank.Two.ordinal();
+  private static final int LOWER_JOKER = Rank.LowerJoker.ordinal();
+  private static final int HIGHER_JOKER = Rank.HigherJoker.ordinal();
+  private static final int BOMB = CardsType.Bomb.ordinal();
+  private static final int ROCKET = CardsType.Rocket.ordinal();
+
+  // the number of cards per prime rank of each CardsType, in ordinal order
+  private static final int[] UNITS = {1, 2, 3, 4, 2, 1, 2, 3, 4, 5, 4, 5, 6, 8};
+
+  private HandClassifier() {}
+
+  /**
+   * The method classifies a card play from its rank histogram.
+   * @param counts The rank histogram of the play, indexed by Rank.ordinal().
+   * @param size The number of cards in the play, which is the sum of the histogram.
+   * @return The packed classification code, or INVALID if the play is not valid.
+   */
+
+  public static int classify(int[] counts, int size) {
+    return classify(signature(counts), size);
+  }
+
+  /**
+   * The method classifies a card play from its rank signature, which is the rank histogram packed
+   * into a long with four bits per rank (see CardSet.rankSignature()).
+   * @param signature The rank signature of the play.
+   * @param size The number of cards in the play.
+   * @return The packed classification code, or INVALID if the play is not valid.
+   */
+
+  public static int classify(long signature, int size) {
+    if (size <= 0 || size > MAX_PLAY_SIZE) {
+      return INVALID;
+    }
+    int solos = 0;
+    int pairs = 0;
+    int trios = 0;
+    int fours = 0;
+    int low = -1;
+    int high = -1;
+    int lowTrio = -1;
+    int highTrio = -1;
+    for (int r = 0; r < RANKS; r++) {
+      int c = count(signature, r);
+      if (c == 0) {
+        continue;
+      }
+      if (low < 0) {
+        low = r;
+      }
+      high = r;
+      switch (c) {
+        case 1:
+          solos++;
+          break;
+        case 2:
+          pairs++;
+          break;
+        case 3:
+          trios++;
+          break;
+        case 4:
+          fours++;
+          break;
+        default:
+          return INVALID;
+      }
+      if (c >= 3) {
+        if (lowTrio < 0) {
+          lowTrio = r;
+        }
+        highTrio = r;
+      }
+    }
+    int distinct = solos + pairs + trios + fours;
+    boolean chain = high - low + 1 == distinct && high < TWO;
+
+    switch (size) {
+      case 1:
+        return encode(CardsType.Solo, high);
+      case 2:
+        if (pairs == 1) {
+          return encode(CardsType.Pair, high);
+        }
+        if (count(signature, LOWER_JOKER) == 1 && count(signature, HIGHER_JOKER) == 1) {
+          return encode(CardsType.Rocket, HIGHER_JOKER);
+        }
+        return INVALID;
+      case 3:
+        return trios == 1 ? encode(CardsType.Trio, high) : INVALID;
+      case 4:
+        if (fours == 1) {
+          return encode(CardsType.Bomb, high);
+        }
+        return trios == 1 ? encode(CardsType.TrioKicksSolo, highTrio) : INVALID;
+      default:
+        break;
+    }
+
+    if (size == 5 && trios == 1 && pairs == 1) {
+      return encode(CardsType.TrioKicksPair, highTrio);
+    }
+    if (solos == size && size <= 12 && chain) {
+      return encode(CardsType.SoloChain, high);
+    }
+    if (pairs * 2 == size && pairs >= 3 && chain) {
+      return encode(CardsType.PairSisters, high);
+    }
+    if (trios * 3 == size && chain) {
+      return encode(CardsType.TrioChain, high);
+    }
+    if (size == 6 && fours == 1 && (solos == 2 || pairs == 1)) {
+      return encode(CardsType.FourKicksDualSolo, highTrio);
+    }
+    if (size == 8 && fours == 1 && pairs == 2) {
+      return encode(CardsType.FourKicksDualPair, highTrio);
+    }
+    int planes = trios + fours;
+    boolean planeChain = planes >= 2 && highTrio - lowTrio + 1 == planes && highTrio < TWO;
+    if (planeChain && size == planes * 4) {
+      return encode(CardsType.AirplaneKicksSolo, highTrio);
+    }
+    if (planeChain && size == planes * 5 && fours == 0 && solos == 0 && pairs == trios) {
+      return encode(CardsType.AirplaneKicksPair, highTrio);
+    }
+    return INVALID;
+  }
+
+  /**
+   * The method packs a rank histogram into a rank signature. Counts that do not fit into four bits
+   * are saturated, they are invalid in any card play anyway.
+   * @param counts The rank histogram, indexed by Rank.ordinal().
+   * @return The rank signature.
+   */
+
+  public static long signature(int[] counts) {
+    long signature = 0L;
+    for (int r = 0; r < RANKS; r++) {
+      signature |= (long) Math.min(counts[r], 0xF) << (r << 2);
+    }
+    return signature;
+  }
+
+  /**
+   * The method computes the rank signature of a given card play without allocating.
+   * @param cards The given card play. It is only read.
+   * @return The rank signature, or INVALID_SIGNATURE if the play holds more than 20 cards or more
+   *         than four cards of a rank, which no card type allows.
+   */
+
+  public static long signature(List<Card> cards) {
+    int size = cards.size();
+    if (size > MAX_PLAY_SIZE) {
+      return INVALID_SIGNATURE;
+    }
+    long signature = 0L;
+    for (int i = 0; i < size; i++) {
+      int shift = cards.get(i).getRank().ordinal() << 2;
+      if ((signature >>> shift & 0xF) == 4) {
+        return INVALID_SIGNATURE;
+      }
+      signature += 1L << shift;
+    }
+    return signature;
+  }
+
+  /**
+   * Get the count of a rank in a rank signature.
+   * @param signature The rank signature.
+   * @param rank The ordinal of the rank.
+   * @return The number of cards of that rank.
+   */
+
+  public static int count(long signature, int rank) {
+    return (int) (signature >>> (rank << 2)) & 0xF;
+  }
+
+  /**
+   * The method fills the rank histogram of a given card play.
+   * @param cards The given card play.
+   * @param counts An array of at least 15 slots. It will be cleared before counting.
+   * @return The given array.
+   */
+
+  public static int[] histogram(List<Card> cards, int[] counts) {
+    for (int r = 0; r < RANKS; r++) {
+      counts[r] = 0;
+    }
+    for (int i = 0, n = cards.size(); i < n; i++) {
+      counts[cards.get(i).getRank().ordinal()]++;
+    }
+    return counts;
+  }
+
+  /**
+   * Get the card type of a classification code.
+   * @param code The classification code.
+   * @return The CardsType, or null if the code is INVALID.
+   */
+
+  public static CardsType typeOf(int code) {
+    return code == INVALID ? null : TYPES[code >>> 4];
+  }
+
+  /**
+   * Get the prime rank of a classification code.
+   * @param code The classification code.
+   * @return The prime rank, or null if the code is INVALID.
+   */
+
+  public static Rank primeRankOf(int code) {
+    return code == INVALID ? null : RANK_VALUES[code & 0xF];
+  }
+
+  /**
+   * The method finds the prime card of a card play, that is, the greatest card of the prime rank.
+   * @param cards The given card play.
+   * @param code The classification code of the play.
+   * @return The prime card, or null if the code is INVALID.
+   */
+
+  public static Card primeCardOf(List<Card> cards, int code) {
+    if (code == INVALID) {
+      return null;
+    }
+    Rank rank = primeRankOf(code);
+    Card prime = null;
+    for (int i = 0, n = cards.size(); i < n; i++) {
+      Card curr = cards.get(i);
+      if (curr.getRank() == rank && (prime == null || curr.compareTo(prime) > 0)) {
+        prime = curr;
+      }
+    }
+    return prime;
+  }
+
+  /**
+   * The method finds the prime card of a card play given as a CardSet.
+   * @param cards The given card play.
+   * @param code The classification code of the play.
+   * @return The prime card, or null if the code is INVALID.
+   */
+
+  public static Card primeCardOf(CardSet cards, int code) {
+    return code == INVALID ? null : cards.highest(primeRankOf(code));
+  }
+
+  /**
+   * The method packs a classification code and the size of the play into a strength key, so that
+   * whether one play beats another is decided by comparing two ints. From the highest bits down,
+   * the key holds the class of the play (2 for a Rocket, 1 for a Bomb, 0 otherwise), the CardsType
+   * ordinal, the chain length, that is the number of prime ranks, and the prime rank ordinal.
+   * Keys that differ in the prime rank only belong to plays that can be played over each other,
+   * and no valid play has the key NO_PLAY.
+   * @param code The classification code of the play.
+   * @param size The number of cards in the play.
+   * @return The strength key, or NO_PLAY if the code is INVALID.
+   */
+
+  public static int strengthOf(int code, int size) {
+    if (code == INVALID) {
+      return NO_PLAY;
+    }
+    int type = code >>> 4;
+    int rank = type == ROCKET ? 2 : type == BOMB ? 1 : 0;
+    return rank << 24 | type << 12 | size / UNITS[type] << 4 | code & 0xF;
+  }
+
+  /**
+   * The method decides whether a play beats the last play, given their strength keys. A Rocket
+   * beats anything, a Bomb beats anything but a Rocket and a greater Bomb, and any other play beats
+   * a play of the same type and chain length with a lower prime rank.
+   * @param key The strength key of the play.
+   * @param last The strength key of the last play, or NO_PLAY if the play leads.
+   * @return True if the play beats the last play.
+   */
+
+  public static boolean beats(int key, int last) {
+    return key != NO_PLAY && (last == NO_PLAY || key >>> 24 > last >>> 24
+            || ((key ^ last) & ~0xF) == 0 && key > last);
+  }
+
+  static int encode(CardsType type, int primeRank) {
+    return type.ordinal() << 4 | primeRank;
+  }
+}
@@ -0,0 +1,276 @@
+package game;
+
+import card.CardSet;
+import card.Rank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class splits a hand into the fewest legal plays, which is the number of turns a hand needs
+ * to run out of cards if nobody else played. Suits do not matter, so the search works on rank
+ * signatures (see HandClassifier), and every play of a split is a shape of ShapeTable.
+ * The cards of the lowest rank of a hand have to be played somehow, so the search only tries the
+ * plays that contain the lowest rank: as a single rank, as the start of a chain or an airplane, as
+ * a trio or a four with kickers, or as a kicker of a greater trio, four or airplane. It takes the
+ * best of them, and memoizes the result of every signature it solves in a cache of bounded size.
+ * The result of a signature does not depend on the hand it came from, so the cache is kept from
+ * one hand to the next, and the remainders of different hands share their entries. The cache is
+ * direct mapped: a signature replaces whichever signature was in its slot.
+ * Decomposers of several threads can share a ClassificationCache behind their own caches, which
+ * they look into on a miss, so that a signature solved by one thread is not solved again by the
+ * others.
+ * A HandDecomposer is not thread safe. Use one decomposer per thread.
+ */
+
+public final class HandDecomposer {
+
+  private static final int TWO = Rank.Two.ordinal();
+  private static final int LOWER_JOKER = Rank.LowerJoker.ordinal();
+  private static final int HIGHER_JOKER = Rank.HigherJoker.ordinal();
+  private static final int MAX_CHAIN = 12;
+  private static final int MAX_AIRPLANE = 5;
+
+  private final ShapeTable shapes = ShapeTable.getInstance();
+  private final ClassificationCache shared;
+  private final long[] keys;
+  private final byte[] values;
+  private final int shift;
+  private long[] stack = new long[1024];
+  private int top;
+  private long signature;
+  private int low;
+  private long hits;
+  private long misses;
+
+  /**
+   * Create a decomposer.
+   * @param cacheBits The cache holds 2^cacheBits signatures, with cacheBits from 1 to 30.
+   */
+
+  public HandDecomposer(int cacheBits) {
+    this(cacheBits, null);
+  }
+
+  /**
+   * Create a decomposer with a cache shared by other threads.
+   * @param cacheBits The cache of the decomposer holds 2^cacheBits signatures, from 1 to 30.
+   * @param shared The shared cache of compressed signatures, or null.
+   */
+
+  public HandDecomposer(int cacheBits, ClassificationCache shared) {
+    if (cacheBits < 1 || cacheBits > 30) {
+      throw new IllegalArgumentException("The cache size must be between 2^1 and 2^30!");
+    }
+    keys = new long[1 << cacheBits];
+    values = new byte[1 << cacheBits];
+    shift = 64 - cacheBits;
+    this.shared = shared;
+  }
+
+  /**
+   * Get the fewest number of plays that a hand splits into.
+   * @param hand The hand.
+   * @return The number of plays, 0 for an empty hand.
+   */
+
+  public int minPlays(CardSet hand) {
+    return minPlays(hand.rankSignature());
+  }
+
+  /**
+   * Get the fewest number of plays that a hand splits into.
+   * @param signature The rank signature of the hand.
+   * @return The number of plays, 0 for an empty hand.
+   */
+
+  public int minPlays(long signature) {
+    top = 0;
+    return solve(signature);
+  }
+
+  /**
+   * The method splits a hand into the fewest plays. Each play takes the cards of each of its
+   * ranks from the lowest suit up.
+   * @param hand The hand.
+   * @return The plays.
+   */
+
+  public List<CardSet> decompose(CardSet hand) {
+    List<CardSet> plays = new ArrayList<>();
+    long rest = hand.mask();
+    long sig = hand.rankSignature();
+    int count = minPlays(sig);
+    while (count > 0) {
+      top = 0;
+      int end = candidates(sig);
+      long play = 0L;
+      for (int i = 0; i < end; i++) {
+        if (solve(sig - stack[i]) == count - 1) {
+          play = stack[i];
+          break;
+        }
+      }
+      long cards = take(rest, play);
+      plays.add(CardSet.of(cards));
+      rest &= ~cards;
+      sig -= play;
+      count--;
+    }
+    return plays;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * The method empties the cache and resets its statistics.
+   */
+
+  public void clear() {
+    Arrays.fill(keys, 0L);
+    hits = 0;
+    misses = 0;
+  }
+
+  private int solve(long sig) {
+    if (sig == 0L) {
+      return 0;
+    }
+    int slot = (int) ((sig * 0x9E3779B97F4A7C15L) >>> shift);
+    if (keys[slot] == sig) {
+      hits++;
+      return values[slot];
+    }
+    misses++;
+    int best = shared == null ? ClassificationCache.MISSING
+            : shared.get(ClassificationCache.compress(sig));
+    if (best != ClassificationCache.MISSING) {
+      keys[slot] = sig;
+      values[slot] = (byte) best;
+      return best;
+    }
+    if (shapes.lookup(sig) != HandClassifier.INVALID) {
+      best = 1;
+    } else {
+      best = Integer.MAX_VALUE;
+      int from = top;
+      int end = candidates(sig);
+      for (int i = from; i < end && best > 2; i++) {
+        best = Math.min(best, 1 + solve(sig - stack[i]));
+      }
+      top = from;
+    }
+    keys[slot] = sig;
+    values[slot] = (byte) best;
+    if (shared != null) {
+      shared.put(ClassificationCache.compress(sig), best);
+    }
+    return best;
+  }
+
+  /**
+   * The method pushes every play onto the stack that is a subset of a signature and contains its
+   * lowest rank.
+   * @return The end of the plays on the stack.
+   */
+
+  private int candidates(long sig) {
+    signature = sig;
+    low = Long.numberOfTrailingZeros(sig) >>> 2;
+    for (int c = 1; c <= count(sig, low); c++) {
+      offer(put(0L, low, c));
+    }
+    if (low == LOWER_JOKER && count(sig, HIGHER_JOKER) > 0) {
+      offer(put(put(0L, LOWER_JOKER, 1), HIGHER_JOKER, 1));
+    }
+    for (int c = 1; c <= 3; c++) {
+      long chain = 0L;
+      for (int r = low; r < TWO && r - low < MAX_CHAIN && count(sig, r) >= c; r++) {
+        chain = put(chain, r, c);
+        if (r > low) {
+          offer(chain);
+        }
+      }
+    }
+    for (int t = low; t <= TWO; t++) {
+      int c = count(sig, t);
+      if (c < 3) {
+        continue;
+      }
+      withKickers(put(0L, t, 3), 1, t == low);
+      if (c == 4) {
+        withKickers(put(0L, t, 4), 2, t == low);
+      }
+      long chain = put(0L, t, 3);
+      for (int r = t + 1; r < TWO && r - t < MAX_AIRPLANE && count(sig, r) >= 3; r++) {
+        chain = put(chain, r, 3);
+        withKickers(chain, r - t + 1, t == low);
+      }
+    }
+    return top;
+  }
+
+  /**
+   * The method offers a core, and the core with every choice of solo or pair kickers. If the core
+   * does not contain the lowest rank, the first kicker has to be of the lowest rank.
+   */
+
+  private void withKickers(long core, int kickers, boolean hasLow) {
+    if (hasLow) {
+      offer(core);
+    }
+    addKickers(core, kickers, 1, low, !hasLow);
+    addKickers(core, kickers, 2, low, !hasLow);
+  }
+
+  private void addKickers(long play, int remain, int unit, int from, boolean needLow) {
+    if (remain == 0) {
+      offer(play);
+      return;
+    }
+    int to = needLow ? low : HIGHER_JOKER;
+    for (int r = from; r <= to; r++) {
+      if (count(play, r) + unit <= count(signature, r)) {
+        addKickers(put(play, r, unit), remain - 1, unit, unit == 1 ? r : r + 1, false);
+      }
+    }
+  }
+
+  private void offer(long play) {
+    if (shapes.lookup(play) == HandClassifier.INVALID) {
+      return;
+    }
+    if (top == stack.length) {
+      stack = Arrays.copyOf(stack, top * 2);
+    }
+    stack[top++] = play;
+  }
+
+  private static long take(long cards, long play) {
+    long taken = 0L;
+    for (int r = 0; r < HandClassifier.RANKS; r++) {
+      long rank = cards & CardSet.rankMask(r);
+      for (int c = count(play, r); c > 0; c--) {
+        long card = Long.lowestOneBit(rank);
+        taken |= card;
+        rank &= ~card;
+      }
+    }
+    return taken;
+  }
+
+  private static int count(long signature, int rank) {
+    return (int) (signature >>> (rank << 2)) & 0xF;
+  }
+
+  private static long put(long signature, int rank, int count) {
+    return signature + ((long) count << (rank << 2));
+  }
+}
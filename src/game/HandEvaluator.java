@@ -0,0 +1,31 @@
+package game;
+
+import card.CardSet;
+
+/**
+ * The interface defines how a hand is scored for the landlord bidding. Evaluators work on the rank
+ * signature of a hand (see HandClassifier), since suits do not matter for its strength.
+ */
+
+public interface HandEvaluator {
+
+  /**
+   * The method scores a hand. Higher scores are stronger hands.
+   * @param signature The rank signature of the hand.
+   * @return The score.
+   */
+
+  int evaluate(long signature);
+
+  /**
+   * The method decides the highest bid that a hand is worth.
+   * @param signature The rank signature of the hand.
+   * @return 0 to pass, or a bid from 1 to 3.
+   */
+
+  int bid(long signature);
+
+  default int evaluate(CardSet hand) {
+    return evaluate(hand.rankSignature());
+  }
+}
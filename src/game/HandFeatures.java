@@ -0,0 +1,94 @@
+package game;
+
+import card.CardSet;
+
+/**
+ * The interface computes the rank signatures and the features of many hands at once, for offline
+ * jobs that score hands over millions of deals. Hands are given as card masks in a long array, and
+ * the results are written to long arrays of the same length, one per hand, so a batch allocates
+ * nothing.
+ * The features of a hand are packed into a long of 6 bit fields, which are read by get(): its
+ * size, the number of its ranks, the number of its ranks of at least two, three and four cards,
+ * whether it holds the Rocket, and the longest runs of ranks from Three to Ace of at least one,
+ * two and three cards. A run is not a chain unless it is long enough, see CardsType.
+ * getInstance() returns an implementation on the Vector API if the JVM runs with
+ * --add-modules jdk.incubator.vector, and the scalar one otherwise. Both give the same results.
+ * The implementations are thread safe.
+ */
+
+public interface HandFeatures {
+
+  int SIZE = 0;
+  int RANKS = 6;
+  int PAIRS = 12;
+  int TRIOS = 18;
+  int BOMBS = 24;
+  int ROCKET = 30;
+  int SOLO_CHAIN = 36;
+  int PAIR_CHAIN = 42;
+  int TRIO_CHAIN = 48;
+
+  /**
+   * Get the implementation for this JVM.
+   * @return The vectorized implementation if the Vector API is available, else the scalar one.
+   */
+
+  static HandFeatures getInstance() {
+    return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            ? VectorHandFeatures.INSTANCE : ScalarHandFeatures.INSTANCE;
+  }
+
+  /**
+   * Get a field of packed features.
+   * @param features The packed features.
+   * @param field The field, SIZE to TRIO_CHAIN.
+   * @return The value of the field.
+   */
+
+  static int get(long features, int field) {
+    return (int) (features >>> field) & 0x3F;
+  }
+
+  /**
+   * The method computes the rank signatures of hands, see CardSet.rankSignature().
+   * @param masks The card masks of the hands.
+   * @param signatures Receives the rank signatures.
+   * @param count The number of hands.
+   */
+
+  void signatures(long[] masks, long[] signatures, int count);
+
+  /**
+   * The method computes the packed features of hands.
+   * @param masks The card masks of the hands.
+   * @param features Receives the packed features.
+   * @param count The number of hands.
+   */
+
+  void features(long[] masks, long[] features, int count);
+
+  /**
+   * The method computes the packed features of one hand. Every implementation agrees with it.
+   * @param mask The card mask of the hand.
+   * @return The packed features.
+   */
+
+  static long of(long mask) {
+    long s = CardSet.rankSignature(mask);
+    long b0 = s & ScalarHandFeatures.NIBBLES;
+    long b1 = s >>> 1 & ScalarHandFeatures.NIBBLES;
+    long b2 = s >>> 2 & ScalarHandFeatures.NIBBLES;
+    long any = b0 | b1 | b2;
+    long pairs = b1 | b2;
+    long trios = b0 & b1 | b2;
+    return (long) Long.bitCount(mask) << SIZE
+            | (long) Long.bitCount(any) << RANKS
+            | (long) Long.bitCount(pairs) << PAIRS
+            | (long) Long.bitCount(trios) << TRIOS
+            | (long) Long.bitCount(b2) << BOMBS
+            | (any >>> 52 & any >>> 56 & 1L) << ROCKET
+            | (long) ScalarHandFeatures.run(any) << SOLO_CHAIN
+            | (long) ScalarHandFeatures.run(pairs) << PAIR_CHAIN
+            | (long) ScalarHandFeatures.run(trios) << TRIO_CHAIN;
+  }
+}
@@ -0,0 +1,75 @@
+package game;
+
+import card.Rank;
+
+/**
+ * The class scores a hand from its rank histogram, by counting the cards and combinations that
+ * win tricks or get rid of many cards at once: Twos, Jokers, the Rocket, Bombs and solo chains.
+ * The rank signature of a hand is the histogram itself, four bits per rank, so every count is
+ * taken with a few bit operations on the signature and no loop over the ranks. That makes the
+ * evaluator cheap enough to score every deal of a simulation.
+ * A HistogramEvaluator is immutable and thread safe.
+ */
+
+public final class HistogramEvaluator implements HandEvaluator {
+
+  public static final int TWO_POINTS = 1;
+  public static final int JOKER_POINTS = 2;
+  public static final int ROCKET_POINTS = 1;
+  public static final int BOMB_POINTS = 2;
+  public static final int CHAIN_POINTS = 1;
+
+  /**
+   * The lowest scores that are worth a bid of 1, 2 and 3.
+   */
+
+  public static final int ONE_BID = 3;
+  public static final int TWO_BID = 4;
+  public static final int THREE_BID = 6;
+
+  private static final long LOW_BITS = 0x0111_1111_1111_1111L;
+  private static final long FOUR_BITS = LOW_BITS << 2;
+  private static final long CHAIN_RANKS = 0x0000_1111_1111_1111L;
+  private static final int TWO = Rank.Two.ordinal();
+  private static final int LOWER_JOKER = Rank.LowerJoker.ordinal();
+  private static final int HIGHER_JOKER = Rank.HigherJoker.ordinal();
+
+  @Override
+  public int evaluate(long signature) {
+    int twos = HandClassifier.count(signature, TWO);
+    int jokers = HandClassifier.count(signature, LOWER_JOKER)
+            + HandClassifier.count(signature, HIGHER_JOKER);
+    return TWO_POINTS * twos + JOKER_POINTS * jokers + (jokers == 2 ? ROCKET_POINTS : 0)
+            + BOMB_POINTS * bombs(signature) + CHAIN_POINTS * chains(signature);
+  }
+
+  @Override
+  public int bid(long signature) {
+    int score = evaluate(signature);
+    return score >= THREE_BID ? 3 : score >= TWO_BID ? 2 : score >= ONE_BID ? 1 : 0;
+  }
+
+  /**
+   * Get the number of Bombs of a hand. A rank holds at most four cards, so the count of a rank is
+   * four exactly if the third bit of its nibble is set.
+   * @param signature The rank signature of the hand.
+   * @return The number of Bombs.
+   */
+
+  public static int bombs(long signature) {
+    return Long.bitCount(signature & FOUR_BITS);
+  }
+
+  /**
+   * Get the number of solo chains of a hand, that is the number of maximal runs of at least five
+   * consecutive ranks from Three to Ace.
+   * @param signature The rank signature of the hand.
+   * @return The number of chains.
+   */
+
+  public static int chains(long signature) {
+    long present = (signature | signature >>> 1 | signature >>> 2) & CHAIN_RANKS;
+    long runs = present & present >>> 4 & present >>> 8 & present >>> 12 & present >>> 16;
+    return Long.bitCount(runs & ~(runs << 4));
+  }
+}
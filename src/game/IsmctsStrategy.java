@@ -0,0 +1,488 @@
+package game;
+
+import card.CardSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongPredicate;
+
+/**
+ * The class implements a strategy that picks its plays with Information Set Monte Carlo Tree
+ * Search (ISMCTS). The hands of the other seats are hidden, so every iteration of the search
+ * samples them at random from the cards that are still unseen, keeping their sizes and the landlord
+ * cards that the landlord has not played yet. The sampled deal, or determinization, decides which
+ * moves are legal in the tree: a node is selected by UCB among the children that are legal in the
+ * current determinization, using the number of times it was available instead of the visits of its
+ * parent. Below the tree, the game is played out by GreedyStrategy.
+ * The search runs with root parallelization: every worker grows its own tree with its own random
+ * generator, so workers share nothing while they search, and only the visit counts of their root
+ * children are summed up at the end. The move with the most visits is played.
+ * The budget of a decision is a number of iterations, a time limit, or both. The calling thread
+ * runs one of the workers, the others run on an executor, by default the common ForkJoinPool. The
+ * worker of the calling thread makes its first iteration even past the time limit, so that a
+ * decision always has a move to play.
+ * Every worker keeps its EndgameSolver from one decision to the next. Its table is keyed by the
+ * whole position, landlord included, so the results of earlier decisions stay valid.
+ * It bids like GreedyStrategy.
+ * An IsmctsStrategy is not thread safe. Use one instance per game engine.
+ */
+
+public class IsmctsStrategy implements Strategy {
+
+  /**
+   * The exploration constant of UCB. Rewards are 0 or 1.
+   */
+
+  public static final double EXPLORATION = 0.7;
+
+  /**
+   * Playouts are solved exactly by an EndgameSolver instead of played out by GreedyStrategy once
+   * no hand holds more cards than that, and the solver needs at most ENDGAME_NODES nodes.
+   */
+
+  public static final int ENDGAME_CARDS = 6;
+  public static final long ENDGAME_NODES = 20_000;
+  private static final int ENDGAME_TABLE_BITS = 16;
+
+  private final int iterations;
+  private final long nanos;
+  private final int threads;
+  private final Executor executor;
+  private final SplittableRandom random;
+  private final EndgameSolver[] solvers;
+  private final GreedyStrategy greedy = new GreedyStrategy();
+  private final MoveGenerator generator = new MoveGenerator();
+  private final long[] moves = new long[2];
+  private final LongPredicate finder = this::find;
+  private long target;
+  private boolean found;
+
+  /**
+   * Create a strategy that searches on the common ForkJoinPool.
+   * @param iterations The number of iterations of a decision, summed over the workers, or 0 for
+   *                   no limit.
+   * @param millis The time limit of a decision in milliseconds, or 0 for no limit.
+   * @param threads The number of workers.
+   * @param seed The seed of the random generator.
+   */
+
+  public IsmctsStrategy(int iterations, long millis, int threads, long seed) {
+    this(iterations, millis, threads, seed, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Create a strategy.
+   * @param iterations The number of iterations of a decision, summed over the workers, or 0 for
+   *                   no limit.
+   * @param millis The time limit of a decision in milliseconds, or 0 for no limit.
+   * @param threads The number of workers.
+   * @param seed The seed of the random generator.
+   * @param executor Runs every worker but the first one.
+   */
+
+  public IsmctsStrategy(int iterations, long millis, int threads, long seed, Executor executor) {
+    if (iterations < 0 || millis < 0 || (iterations == 0 && millis == 0)) {
+      throw new IllegalArgumentException("A search needs an iteration or a time budget!");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("A search needs at least one thread!");
+    }
+    this.iterations = iterations;
+    this.nanos = millis * 1_000_000L;
+    this.threads = threads;
+    this.executor = executor;
+    this.random = new SplittableRandom(seed);
+    this.solvers = new EndgameSolver[threads];
+    for (int i = 0; i < threads; i++) {
+      solvers[i] = new EndgameSolver(ENDGAME_TABLE_BITS);
+    }
+  }
+
+  @Override
+  public int bid(GameState state, int seat) {
+    return greedy.bid(state, seat);
+  }
+
+  @Override
+  public CardSet play(GameState state, int seat) {
+    long hand = state.getHand(seat).mask();
+    PlayerImpl.Plays last = state.getLastPlay();
+    long toBeat = last == null ? 0L : last.getCardSet().mask();
+    int count = generator.generate(hand, toBeat, moves);
+    if (count == 0) {
+      return null;
+    } else if (count == 1 && last == null) {
+      return CardSet.of(moves[0]);
+    }
+    target = hand;
+    found = false;
+    generator.generate(hand, toBeat, finder);
+    if (found) {
+      return CardSet.of(hand);
+    }
+    long move = search(new Sampler(state, seat));
+    return move == Position.PASS ? null : CardSet.of(move);
+  }
+
+  private boolean find(long move) {
+    found = move == target;
+    return !found;
+  }
+
+  private long search(Sampler sampler) {
+    long deadline = nanos == 0 ? 0L : System.nanoTime() + nanos;
+    List<CompletableFuture<Node>> futures = new ArrayList<>();
+    for (int i = 1; i < threads; i++) {
+      Search worker = new Search(sampler, random.split(), solvers[i], budget(i), deadline);
+      futures.add(CompletableFuture.supplyAsync(() -> worker.run(false), executor));
+    }
+    Map<Long, long[]> visits = new HashMap<>();
+    merge(visits, new Search(sampler, random.split(), solvers[0], budget(0), deadline).run(true));
+    for (CompletableFuture<Node> future : futures) {
+      merge(visits, future.join());
+    }
+    long best = Position.PASS;
+    long[] bestStats = null;
+    for (Map.Entry<Long, long[]> entry : visits.entrySet()) {
+      long[] stats = entry.getValue();
+      if (bestStats == null || stats[0] > bestStats[0]
+              || (stats[0] == bestStats[0] && stats[1] > bestStats[1])) {
+        best = entry.getKey();
+        bestStats = stats;
+      }
+    }
+    return best;
+  }
+
+  private int budget(int worker) {
+    if (iterations == 0) {
+      return Integer.MAX_VALUE;
+    }
+    return iterations / threads + (worker < iterations % threads ? 1 : 0);
+  }
+
+  private static void merge(Map<Long, long[]> visits, Node root) {
+    for (Node child : root.children()) {
+      long[] stats = visits.computeIfAbsent(child.move, move -> new long[2]);
+      stats[0] += child.visits;
+      stats[1] += child.wins;
+    }
+  }
+
+  /**
+   * Plays games with an IsmctsStrategy in seat 0 against two GreedyStrategy seats, and the same
+   * deals with three GreedyStrategy seats, and prints how often seat 0 wins.
+   * @param args The number of games, the iterations per decision and the number of threads, all
+   *             optional.
+   */
+
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+    int threads = args.length > 2 ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+    int wins = 0;
+    int baseline = 0;
+    long start = System.nanoTime();
+    long decisions = 0;
+    for (int game = 0; game < games; game++) {
+      long seed = BatchRunner.gameSeed(42L, game);
+      IsmctsStrategy ismcts = new IsmctsStrategy(iterations, 0, threads, seed);
+      GameEngine engine = new GameEngine(ismcts, new GreedyStrategy(), new GreedyStrategy(),
+              new SplittableRandom(seed));
+      GameEngine.Result result = engine.play();
+      wins += engine.getState().isPartner(0, result.getWinner()) ? 1 : 0;
+      decisions += result.getTurns() / GameState.SEATS;
+      engine = new GameEngine(new GreedyStrategy(), new GreedyStrategy(), new GreedyStrategy(),
+              new SplittableRandom(seed));
+      result = engine.play();
+      baseline += engine.getState().isPartner(0, result.getWinner()) ? 1 : 0;
+    }
+    System.out.printf("seat 0 won %d of %d games with ISMCTS, %d with greedy, about %.1f ms per "
+                    + "turn%n", wins, games, baseline,
+            (System.nanoTime() - start) / 1e6 / Math.max(1, decisions));
+  }
+
+  /**
+   * The class samples the hidden hands of the other seats from the point of view of one seat.
+   * A Sampler is immutable, so it can be shared by the workers of a search.
+   */
+
+  static final class Sampler {
+    private final long[] hands = new long[GameState.SEATS];
+    private final int[] unseen;
+    private final int landlord;
+    private final int turn;
+    private final long last;
+    private final int lastSeat;
+    private final int first;
+    private final int second;
+    private final int firstNeed;
+
+    Sampler(GameState state, int seat) {
+      landlord = state.getLandlord();
+      turn = seat;
+      PlayerImpl.Plays lastPlay = state.getLastPlay();
+      last = lastPlay == null ? 0L : lastPlay.getCardSet().mask();
+      lastSeat = state.getLastSeat();
+      first = (seat + 1) % GameState.SEATS;
+      second = (seat + 2) % GameState.SEATS;
+
+      long played = state.getPlayed().mask();
+      long own = state.getHand(seat).mask();
+      long kitty = seat == landlord ? 0L : state.getKitty().mask() & ~played;
+      hands[seat] = own;
+      hands[landlord == first ? first : second] = kitty;
+      long pool = CardSet.FULL_MASK & ~own & ~played & ~kitty;
+      firstNeed = state.getHandSize(first) - Long.bitCount(hands[first]);
+      int secondNeed = state.getHandSize(second) - Long.bitCount(hands[second]);
+      if (firstNeed < 0 || secondNeed < 0 || firstNeed + secondNeed != Long.bitCount(pool)) {
+        throw new IllegalStateException("The hand sizes do not match the unseen cards.");
+      }
+      unseen = new int[Long.bitCount(pool)];
+      for (int i = 0; pool != 0L; i++, pool &= pool - 1) {
+        unseen[i] = Long.numberOfTrailingZeros(pool);
+      }
+    }
+
+    /**
+     * The method deals the unseen cards at random and sets up a position with them.
+     * @param random The generator that deals the cards.
+     * @param cards A scratch copy of the unseen cards, which is shuffled in place.
+     * @param scratch A scratch array for the hands.
+     * @param position Receives the sampled position.
+     */
+
+    void sample(SplittableRandom random, int[] cards, long[] scratch, Position position) {
+      System.arraycopy(unseen, 0, cards, 0, unseen.length);
+      long dealt = 0L;
+      for (int i = 0; i < firstNeed; i++) {
+        int j = i + random.nextInt(cards.length - i);
+        int card = cards[j];
+        cards[j] = cards[i];
+        cards[i] = card;
+        dealt |= 1L << card;
+      }
+      long rest = 0L;
+      for (int i = firstNeed; i < cards.length; i++) {
+        rest |= 1L << cards[i];
+      }
+      System.arraycopy(hands, 0, scratch, 0, GameState.SEATS);
+      scratch[first] |= dealt;
+      scratch[second] |= rest;
+      position.reset(scratch, landlord, turn, last, lastSeat);
+    }
+  }
+
+  /**
+   * The class is a node of a search tree. The move of a node is the move that leads to it, and
+   * the seat of a node is the seat that made the move. Its wins count the playouts through the
+   * node that the side of that seat won. Children are kept in an open-addressing table keyed by
+   * move, PASS apart.
+   */
+
+  static final class Node {
+    final long move;
+    final int seat;
+    final Node parent;
+    int visits;
+    int wins;
+    int availability;
+    private long[] keys = new long[8];
+    private Node[] values = new Node[8];
+    private int size;
+    private Node pass;
+
+    Node(long move, int seat, Node parent) {
+      this.move = move;
+      this.seat = seat;
+      this.parent = parent;
+    }
+
+    Node child(long move) {
+      if (move == Position.PASS) {
+        return pass;
+      }
+      int mask = keys.length - 1;
+      for (int i = slot(move, mask); keys[i] != 0L; i = (i + 1) & mask) {
+        if (keys[i] == move) {
+          return values[i];
+        }
+      }
+      return null;
+    }
+
+    Node add(long move, int seat) {
+      Node child = new Node(move, seat, this);
+      if (move == Position.PASS) {
+        pass = child;
+        return child;
+      }
+      if (2 * (size + 1) > keys.length) {
+        long[] oldKeys = keys;
+        Node[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Node[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+          if (oldKeys[i] != 0L) {
+            put(oldKeys[i], oldValues[i]);
+          }
+        }
+      }
+      put(move, child);
+      size++;
+      return child;
+    }
+
+    List<Node> children() {
+      List<Node> result = new ArrayList<>(size + 1);
+      for (Node value : values) {
+        if (value != null) {
+          result.add(value);
+        }
+      }
+      if (pass != null) {
+        result.add(pass);
+      }
+      return result;
+    }
+
+    private void put(long move, Node child) {
+      int mask = keys.length - 1;
+      int i = slot(move, mask);
+      while (keys[i] != 0L) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = move;
+      values[i] = child;
+    }
+
+    private static int slot(long move, int mask) {
+      return (int) ((move * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+  }
+
+  /**
+   * The class is a worker of a search, which grows a tree on its own.
+   */
+
+  private static final class Search {
+    private final Sampler sampler;
+    private final SplittableRandom random;
+    private final EndgameSolver solver;
+    private final int budget;
+    private final long deadline;
+    private final Node root;
+    private final Position position = new Position(new long[GameState.SEATS], 0, 0, 0L, -1);
+    private final MoveGenerator generator = new MoveGenerator();
+    private final GreedyStrategy rollout = new GreedyStrategy();
+    private final int[] cards;
+    private final long[] hands = new long[GameState.SEATS];
+    private final LongPredicate collector = this::collect;
+    private long[] moves = new long[64];
+    private int count;
+
+    Search(Sampler sampler, SplittableRandom random, EndgameSolver solver, int budget,
+           long deadline) {
+      this.sampler = sampler;
+      this.random = random;
+      this.solver = solver;
+      this.budget = budget;
+      this.deadline = deadline;
+      this.root = new Node(Position.PASS, -1, null);
+      this.cards = new int[sampler.unseen.length];
+    }
+
+    /**
+     * The method grows the tree until the budget is spent or the deadline has passed.
+     * @param first Whether to make the first iteration whatever the deadline.
+     * @return The root of the tree.
+     */
+
+    Node run(boolean first) {
+      for (int i = 0; i < budget
+              && (first && i == 0 || deadline == 0L || System.nanoTime() < deadline); i++) {
+        iterate();
+      }
+      return root;
+    }
+
+    private void iterate() {
+      sampler.sample(random, cards, hands, position);
+      Node node = root;
+      while (!position.isOver()) {
+        count = 0;
+        position.moves(generator, collector);
+        if (!position.isLeading()) {
+          collect(Position.PASS);
+        }
+        long untried = Position.PASS;
+        int seen = 0;
+        for (int i = 0; i < count; i++) {
+          if (node.child(moves[i]) == null && random.nextInt(++seen) == 0) {
+            untried = moves[i];
+          }
+        }
+        int seat = position.getTurn();
+        if (seen > 0) {
+          position.play(untried);
+          node = node.add(untried, seat);
+          break;
+        }
+        Node best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+          Node child = node.child(moves[i]);
+          child.availability++;
+          double score = (double) child.wins / child.visits
+                  + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+          if (score > bestScore) {
+            best = child;
+            bestScore = score;
+          }
+        }
+        position.play(best.move);
+        node = best;
+      }
+      int landlord = position.getLandlord();
+      int winner = isEndgame() ? solver.solve(position, ENDGAME_NODES) : EndgameSolver.UNKNOWN;
+      if (winner == EndgameSolver.UNKNOWN) {
+        while (!position.isOver()) {
+          position.play(rollout.choose(position));
+        }
+        winner = position.getWinner() == landlord ? EndgameSolver.LANDLORD
+                : EndgameSolver.PEASANTS;
+      }
+      for (; node != null; node = node.parent) {
+        node.visits++;
+        if (node.seat >= 0 && (node.seat == landlord) == (winner == EndgameSolver.LANDLORD)) {
+          node.wins++;
+        }
+      }
+    }
+
+    private boolean isEndgame() {
+      for (int seat = 0; seat < GameState.SEATS; seat++) {
+        if (Long.bitCount(position.getHand(seat)) > ENDGAME_CARDS) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean collect(long move) {
+      if (count == moves.length) {
+        moves = Arrays.copyOf(moves, count * 2);
+      }
+      moves[count++] = move;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,334 @@
+package game;
+
+import card.CardSet;
+import card.Rank;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * The class enumerates every legal play of a hand that can follow the last play.
+ * If there is no last play, every legal play of the hand is enumerated, otherwise every play of the
+ * same type and size with a greater prime rank, every greater Bomb, and the Rocket.
+ * Suits do not matter in the game, so plays are enumerated by rank: for each distinct rank
+ * signature there is exactly one move, which takes the cards of each rank in ascending order.
+ * Kicker choices, including kickers of the same rank, are enumerated as distinct moves.
+ * Moves are passed around as the bit masks of their CardSet, and the generator works on the rank
+ * counts of the hand only, so no list or CardSet is allocated per candidate. Passing is not a move.
+ * A MoveGenerator can be reused, but it is not thread safe. Use one generator per thread.
+ */
+
+public final class MoveGenerator {
+
+  private static final int RANKS = HandClassifier.RANKS;
+  private static final int TWO = Rank.Two.ordinal();
+  private static final int LOWER_JOKER = Rank.LowerJoker.ordinal();
+  private static final int HIGHER_JOKER = Rank.HigherJoker.ordinal();
+
+  private long hand;
+  private long signature;
+  private LongPredicate visitor;
+  private long[] moves;
+  private int count;
+  private boolean stopped;
+
+  /**
+   * The method enumerates the legal moves of a hand that follow the last play, and passes each of
+   * them to a visitor until the visitor returns false.
+   * @param hand The hand of the player.
+   * @param last The last play to beat, or null if the player leads.
+   * @param visitor Receives the bit mask of each move, returns false to stop the enumeration.
+   * @return The number of moves passed to the visitor.
+   */
+
+  public int generate(CardSet hand, PlayerImpl.Plays last, LongPredicate visitor) {
+    this.visitor = visitor;
+    this.moves = null;
+    return run(hand, last);
+  }
+
+  /**
+   * The method enumerates the first moves of a hand that follow the last play into an array.
+   * The enumeration stops as soon as the array is full.
+   * @param hand The hand of the player.
+   * @param last The last play to beat, or null if the player leads.
+   * @param moves Receives the bit masks of the moves.
+   * @return The number of moves written.
+   */
+
+  public int generate(CardSet hand, PlayerImpl.Plays last, long[] moves) {
+    this.visitor = null;
+    this.moves = moves;
+    if (moves.length == 0) {
+      return 0;
+    }
+    return run(hand, last);
+  }
+
+  /**
+   * The method enumerates the legal moves of a hand that follow the last play, both given as bit
+   * masks, and passes each of them to a visitor until the visitor returns false.
+   * @param hand The bit mask of the hand of the player.
+   * @param last The bit mask of the last play to beat, or 0 if the player leads.
+   * @param visitor Receives the bit mask of each move, returns false to stop the enumeration.
+   * @return The number of moves passed to the visitor.
+   */
+
+  public int generate(long hand, long last, LongPredicate visitor) {
+    this.visitor = visitor;
+    this.moves = null;
+    return run(hand, last);
+  }
+
+  /**
+   * The method enumerates the first moves of a hand that follow the last play into an array.
+   * The enumeration stops as soon as the array is full.
+   * @param hand The bit mask of the hand of the player.
+   * @param last The bit mask of the last play to beat, or 0 if the player leads.
+   * @param moves Receives the bit masks of the moves.
+   * @return The number of moves written.
+   */
+
+  public int generate(long hand, long last, long[] moves) {
+    this.visitor = null;
+    this.moves = moves;
+    if (moves.length == 0) {
+      return 0;
+    }
+    return run(hand, last);
+  }
+
+  /**
+   * The method lists every legal move of a hand that follows the last play.
+   * @param hand The hand of the player.
+   * @param last The last play to beat, or null if the player leads.
+   * @return The list of moves.
+   */
+
+  public static List<CardSet> legalMoves(CardSet hand, PlayerImpl.Plays last) {
+    List<CardSet> result = new ArrayList<>();
+    new MoveGenerator().generate(hand, last, move -> result.add(CardSet.of(move)));
+    return result;
+  }
+
+  private int run(CardSet hand, PlayerImpl.Plays last) {
+    if (last == null) {
+      return run(hand.mask(), null, 0, 0);
+    }
+    return run(hand.mask(), last.getType(), last.getPrimeCard().getRank().ordinal(),
+            last.getSize());
+  }
+
+  private int run(long hand, long last) {
+    if (last == 0L) {
+      return run(hand, null, 0, 0);
+    }
+    int code = ShapeTable.getInstance().lookup(CardSet.rankSignature(last));
+    if (code == HandClassifier.INVALID) {
+      this.visitor = null;
+      this.moves = null;
+      throw new IllegalArgumentException("The last play is not a valid play!");
+    }
+    return run(hand, HandClassifier.typeOf(code), HandClassifier.primeRankOf(code).ordinal(),
+            Long.bitCount(last));
+  }
+
+  private int run(long hand, CardsType type, int prime, int size) {
+    this.hand = hand;
+    this.signature = CardSet.rankSignature(hand);
+    this.count = 0;
+    this.stopped = false;
+    if (type == null) {
+      lead();
+    } else {
+      follow(type, prime, size);
+    }
+    this.visitor = null;
+    this.moves = null;
+    return count;
+  }
+
+  private void lead() {
+    singles(1, -1);
+    singles(2, -1);
+    singles(3, -1);
+    for (int length = 5; length <= 12; length++) {
+      chains(1, length, -1);
+    }
+    for (int length = 3; length <= 10; length++) {
+      chains(2, length, -1);
+    }
+    for (int length = 2; length <= 6; length++) {
+      chains(3, length, -1);
+    }
+    withKickers(CardsType.TrioKicksSolo, 3, 1, 1, 1, -1);
+    withKickers(CardsType.TrioKicksPair, 3, 1, 2, 1, -1);
+    for (int length = 2; length <= 5; length++) {
+      withKickers(CardsType.AirplaneKicksSolo, 3, length, 1, length, -1);
+    }
+    for (int length = 2; length <= 4; length++) {
+      withKickers(CardsType.AirplaneKicksPair, 3, length, 2, length, -1);
+    }
+    withKickers(CardsType.FourKicksDualSolo, 4, 1, 1, 2, -1);
+    withKickers(CardsType.FourKicksDualPair, 4, 1, 2, 2, -1);
+    singles(4, -1);
+    rocket();
+  }
+
+  private void follow(CardsType type, int prime, int size) {
+    switch (type) {
+      case Solo:
+        singles(1, prime);
+        break;
+      case Pair:
+        singles(2, prime);
+        break;
+      case Trio:
+        singles(3, prime);
+        break;
+      case SoloChain:
+        chains(1, size, prime);
+        break;
+      case PairSisters:
+        chains(2, size / 2, prime);
+        break;
+      case TrioChain:
+        chains(3, size / 3, prime);
+        break;
+      case TrioKicksSolo:
+        withKickers(type, 3, 1, 1, 1, prime);
+        break;
+      case TrioKicksPair:
+        withKickers(type, 3, 1, 2, 1, prime);
+        break;
+      case AirplaneKicksSolo:
+        withKickers(type, 3, size / 4, 1, size / 4, prime);
+        break;
+      case AirplaneKicksPair:
+        withKickers(type, 3, size / 5, 2, size / 5, prime);
+        break;
+      case FourKicksDualSolo:
+        withKickers(type, 4, 1, 1, 2, prime);
+        break;
+      case FourKicksDualPair:
+        withKickers(type, 4, 1, 2, 2, prime);
+        break;
+      case Bomb:
+        singles(4, prime);
+        rocket();
+        return;
+      case Rocket:
+      default:
+        return;
+    }
+    singles(4, -1);
+    rocket();
+  }
+
+  /**
+   * The method enumerates plays of a single rank, such as Solo, Pair, Trio and Bomb.
+   */
+
+  private void singles(int width, int prime) {
+    for (int r = prime + 1; r < RANKS && !stopped; r++) {
+      if (HandClassifier.count(signature, r) >= width) {
+        emit(take(hand, r, width));
+      }
+    }
+  }
+
+  /**
+   * The method enumerates chains of a given width and length whose top rank beats the prime.
+   */
+
+  private void chains(int width, int length, int prime) {
+    for (int top = Math.max(length - 1, prime + 1); top < TWO && !stopped; top++) {
+      long move = chain(width, top - length + 1, top);
+      if (move != 0L) {
+        emit(move);
+      }
+    }
+  }
+
+  /**
+   * The method enumerates plays that consist of a core, which is a Trio, a Four or an airplane of
+   * Trios, and a number of Solo (unit 1) or Pair (unit 2) kickers. Each candidate is checked
+   * against the ShapeTable, since kickers may turn the play into another type, for example a
+   * fourth card of the Trio rank.
+   */
+
+  private void withKickers(CardsType type, int width, int length, int unit, int need,
+                           int prime) {
+    int last = length > 1 ? TWO - 1 : TWO;
+    for (int top = Math.max(length - 1, prime + 1); top <= last && !stopped; top++) {
+      long core = chain(width, top - length + 1, top);
+      if (core != 0L) {
+        kickers(core, hand & ~core, need, unit, 0, HandClassifier.encode(type, top));
+      }
+    }
+  }
+
+  private void kickers(long move, long remain, int need, int unit, int from, int expected) {
+    if (need == 0) {
+      if (ShapeTable.getInstance().lookup(CardSet.rankSignature(move)) == expected) {
+        emit(move);
+      }
+      return;
+    }
+    for (int r = from; r < RANKS && !stopped; r++) {
+      long cards = take(remain, r, unit);
+      if (cards != 0L) {
+        kickers(move | cards, remain & ~cards, need - 1, unit, unit == 1 ? r : r + 1, expected);
+      }
+    }
+  }
+
+  private void rocket() {
+    if (!stopped && HandClassifier.count(signature, LOWER_JOKER) == 1
+            && HandClassifier.count(signature, HIGHER_JOKER) == 1) {
+      emit(CardSet.rankMask(LOWER_JOKER) | CardSet.rankMask(HIGHER_JOKER));
+    }
+  }
+
+  private long chain(int width, int low, int high) {
+    long move = 0L;
+    for (int r = low; r <= high; r++) {
+      long cards = take(hand, r, width);
+      if (cards == 0L) {
+        return 0L;
+      }
+      move |= cards;
+    }
+    return move;
+  }
+
+  /**
+   * The method takes the lowest cards of a rank from a set of cards.
+   * @return The bit mask of the cards, or 0 if there are not enough cards of the rank.
+   */
+
+  private static long take(long cards, int rank, int width) {
+    long bits = cards & CardSet.rankMask(rank);
+    if (Long.bitCount(bits) < width) {
+      return 0L;
+    }
+    long result = 0L;
+    for (int i = 0; i < width; i++) {
+      long lowest = bits & -bits;
+      result |= lowest;
+      bits ^= lowest;
+    }
+    return result;
+  }
+
+  private void emit(long move) {
+    if (moves != null) {
+      moves[count++] = move;
+      stopped = count == moves.length;
+    } else {
+      count++;
+      stopped = !visitor.test(move);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package game;
+
+import card.CardSet;
+import card.Rank;
+import metrics.Counter;
+import metrics.Metrics;
+
+/**
+ * The class checks a selection of cards against the hand of a seat and the last play, without
+ * throwing and without allocating: every check fills in and returns the same Result, which tells
+ * whether the selection may be played, and why not, or its type, prime rank and strength key. A
+ * selection of no cards is a pass, which is valid unless the seat leads.
+ * Since the Result is reused, it only holds until the next check of the same validator.
+ * A PlayValidator is not thread safe.
+ */
+
+public final class PlayValidator {
+
+  public static final int VALID = 0;
+  public static final int PASS = 1;
+  public static final int MUST_LEAD = 2;
+  public static final int NOT_IN_HAND = 3;
+  public static final int NOT_VALID = 4;
+  public static final int NOT_HIGHER = 5;
+
+  private static final String[] REASONS = {
+      null,
+      null,
+      "A seat cannot pass when it leads.",
+      "Selected Card is not in hand.",
+      "Selected Card is not a valid play.",
+      "Selected Card is not a valid play."
+  };
+
+  private final ShapeTable shapes = ShapeTable.getInstance();
+  private final Result result = new Result();
+
+  /**
+   * The method checks a selection.
+   * @param hand The hand of the seat.
+   * @param last The last play, or null if the seat leads.
+   * @param selection The selected cards, or null to pass.
+   * @return The result, which is overwritten by the next check.
+   */
+
+  public Result validate(CardSet hand, PlayerImpl.Plays last, CardSet selection) {
+    return validate(hand.mask(), last == null ? HandClassifier.NO_PLAY : last.getKey(),
+            selection == null ? 0L : selection.mask());
+  }
+
+  /**
+   * The method checks a selection given as masks.
+   * @param hand The mask of the hand of the seat.
+   * @param last The strength key of the last play, or HandClassifier.NO_PLAY if the seat leads.
+   * @param selection The mask of the selected cards, or 0 to pass.
+   * @return The result, which is overwritten by the next check.
+   */
+
+  public Result validate(long hand, int last, long selection) {
+    if (selection == 0L) {
+      return result.set(last == HandClassifier.NO_PLAY ? MUST_LEAD : PASS, 0L,
+              HandClassifier.INVALID, HandClassifier.NO_PLAY);
+    }
+    long start = Metrics.sample();
+    if ((selection & ~hand) != 0L) {
+      return reject(NOT_IN_HAND, selection, HandClassifier.INVALID, start);
+    }
+    int code = shapes.lookup(CardSet.rankSignature(selection));
+    GameMetrics.classified(code, start);
+    if (code == HandClassifier.INVALID) {
+      return reject(NOT_VALID, selection, code, start);
+    }
+    int key = HandClassifier.strengthOf(code, Long.bitCount(selection));
+    if (!HandClassifier.beats(key, last)) {
+      return reject(NOT_HIGHER, selection, code, start);
+    }
+    GameMetrics.played(GameMetrics.ACCEPTED, start);
+    return result.set(VALID, selection, code, key);
+  }
+
+  private Result reject(int status, long selection, int code, long start) {
+    GameMetrics.played(counterOf(status), start);
+    return result.set(status, selection, code, HandClassifier.NO_PLAY);
+  }
+
+  private static Counter counterOf(int status) {
+    switch (status) {
+      case NOT_IN_HAND:
+        return GameMetrics.NOT_IN_HAND;
+      case NOT_VALID:
+        return GameMetrics.NOT_VALID;
+      default:
+        return GameMetrics.NOT_HIGHER;
+    }
+  }
+
+  /**
+   * The class holds the result of the last check of a validator.
+   */
+
+  public static final class Result {
+    private int status;
+    private long cards;
+    private int code;
+    private int key;
+
+    private Result() {
+    }
+
+    private Result set(int status, long cards, int code, int key) {
+      this.status = status;
+      this.cards = cards;
+      this.code = code;
+      this.key = key;
+      return this;
+    }
+
+    /**
+     * Get the status of the check.
+     * @return VALID, PASS, or the reason of the rejection, MUST_LEAD to NOT_HIGHER.
+     */
+
+    public int getStatus() {
+      return status;
+    }
+
+    /**
+     * The method tells whether the selection may be played, which is true for a pass too.
+     * @return True if the status is VALID or PASS.
+     */
+
+    public boolean isValid() {
+      return status <= PASS;
+    }
+
+    public boolean isPass() {
+      return status == PASS;
+    }
+
+    /**
+     * Get the reason of a rejection, the same message playCards() throws with.
+     * @return The reason, or null if the selection is valid.
+     */
+
+    public String getReason() {
+      return REASONS[status];
+    }
+
+    /**
+     * Get the selected cards.
+     * @return The mask of the cards, 0 for a pass.
+     */
+
+    public long getCards() {
+      return cards;
+    }
+
+    /**
+     * Get the classification code of the selection, see HandClassifier.
+     * @return The code, or INVALID for a pass, for cards not in hand and for invalid plays.
+     */
+
+    public int getCode() {
+      return code;
+    }
+
+    /**
+     * Get the type of the selection. It is known for plays that are not higher too.
+     * @return The type, or null if the selection is not of any type.
+     */
+
+    public CardsType getType() {
+      return HandClassifier.typeOf(code);
+    }
+
+    public Rank getPrimeRank() {
+      return HandClassifier.primeRankOf(code);
+    }
+
+    /**
+     * Get the strength key of a valid play, see HandClassifier.strengthOf().
+     * @return The key, or HandClassifier.NO_PLAY unless the status is VALID.
+     */
+
+    public int getKey() {
+      return key;
+    }
+  }
+}
@@ -1,13 +1,18 @@
 package game;
 
 import card.Card;
+import card.CardSet;
 import java.util.List;
 
 public interface Player {
 
   List<Card> getHands();
 
+  CardSet getHandSet();
+
   List<Card> selectCards(List<Integer> indices);
 
   PlayerImpl.Plays playCards(PlayerImpl.Plays last, List<Card> selectedCard);
+
+  PlayerImpl.Plays playCards(PlayerImpl.Plays last, CardSet selectedCard);
 }
@@ -1,22 +1,32 @@
 package game;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import card.Card;
+import card.CardSet;
 
 public class PlayerImpl implements Player {
 
-  private final List<Card> hand;
+  private final PlayValidator validator = new PlayValidator();
+  private CardSet hand;
 
   public PlayerImpl(List<Card> cards) {
+    this(CardSet.of(cards));
+  }
+
+  public PlayerImpl(CardSet cards) {
     this.hand = cards;
   }
 
   @Override
   public List<Card> getHands() {
-    return Collections.unmodifiableList(hand);
+    return Collections.unmodifiableList(hand.toList());
+  }
+
+  @Override
+  public CardSet getHandSet() {
+    return hand;
   }
 
   @Override
@@ -24,61 +34,136 @@ public class PlayerImpl implements Player {
     if (selectedCard == null || selectedCard.size() == 0) {
       return null;
     }
-    Plays toPlay;
-    boolean isValid = false;
+    CardSet selected;
     try {
-      toPlay = new Plays(selectedCard);
+      selected = CardSet.of(selectedCard);
     } catch (IllegalArgumentException e) {
       throw new IllegalArgumentException("Selected Card is not a valid play.");
     }
-    if (toPlay.type == CardsType.Rocket) {
-      isValid = true;
-    } else if (toPlay.getType() == CardsType.Bomb) {
+    return playCards(last, selected);
+  }
 
+  @Override
+  public Plays playCards(Plays last, CardSet selectedCard) {
+    if (selectedCard == null || selectedCard.isEmpty()) {
+      return null;
+    }
+    PlayValidator.Result result = validate(last, selectedCard.mask());
+    if (!result.isValid()) {
+      throw new IllegalArgumentException(result.getReason());
     }
+    return play(result);
+  }
 
-    // other logic...
+  /**
+   * The method checks whether selected cards may be played over the last play, like playCards(),
+   * but neither throws nor allocates when they may not. The hand is not changed.
+   * @param last The last play, or null if the player leads.
+   * @param selectedCard The mask of the selected cards, or 0 to pass.
+   * @return The result, which holds until the next check of the player.
+   */
+
+  public PlayValidator.Result validate(Plays last, long selectedCard) {
+    return validator.validate(hand.mask(),
+            last == null ? HandClassifier.NO_PLAY : last.getKey(), selectedCard);
+  }
 
+  /**
+   * The method plays the cards of a valid result of validate(), and removes them from the hand.
+   * @param result The result of the last check of the player.
+   * @return The play, or null for a pass.
+   */
 
-     else if (toPlay.getType() == last.getType() && toPlay.getSize() == last.getSize()
-            && toPlay.compareTo(last) > 0) {
-      isValid = true;
+  public Plays play(PlayValidator.Result result) {
+    if (!result.isValid()) {
+      throw new IllegalArgumentException(result.getReason());
     }
-
-    if (isValid) {
-      removeCardsFromHand(selectedCard);
-      return toPlay;
-    } else {
-      throw new IllegalArgumentException("Selected Card is not a valid play.");
+    if (result.isPass()) {
+      return null;
     }
-
+    CardSet selected = CardSet.of(result.getCards());
+    if (!hand.containsAll(selected)) {
+      throw new IllegalArgumentException("Selected Card is not in hand.");
+    }
+    removeCardsFromHand(selected);
+    return new Plays(selected, result.getCode());
   }
 
+  /**
+   * The method selects cards of the hand by their indices in getHands(), which lists the hand from
+   * the lowest card to the highest. The hand is not changed.
+   * @param indices The indices of the selected cards.
+   * @return The selected cards, from the lowest to the highest, or null if none is selected.
+   */
+
   @Override
   public List<Card> selectCards(List<Integer> indices) {
-
-    return null;
+    if (indices == null || indices.isEmpty()) {
+      return null;
+    }
+    long cards = hand.mask();
+    int size = Long.bitCount(cards);
+    long selected = 0L;
+    for (int i = 0, n = indices.size(); i < n; i++) {
+      Integer index = indices.get(i);
+      if (index == null || index < 0 || index >= size) {
+        throw new IllegalArgumentException("There is no card at index " + index + "!");
+      }
+      long card = nthCard(cards, index);
+      if ((selected & card) != 0L) {
+        throw new IllegalArgumentException("The card at index " + index + " is selected twice!");
+      }
+      selected |= card;
+    }
+    return CardSet.of(selected).toList();
   }
 
-  private void removeCardsFromHand(List<Card> selectedCard) {
+  private static long nthCard(long cards, int index) {
+    for (int i = 0; i < index; i++) {
+      cards &= cards - 1;
+    }
+    return Long.lowestOneBit(cards);
+  }
 
+  private void removeCardsFromHand(CardSet selectedCard) {
+    hand = CardSet.of(hand.mask() & ~selectedCard.mask());
   }
 
-  static class Plays implements Comparable<Plays>{
+  /**
+   * The class holds a valid card play with its type, its prime card and its strength key, see
+   * HandClassifier.strengthOf(). Whether a play beats another is decided by their keys alone.
+   */
+
+  public static class Plays implements Comparable<Plays> {
     private final CardsType type;
     private final Card primeCard;
-    private final List<Card> cards;
+    private final CardSet cards;
     private final int size;
+    private final int key;
 
     public Plays(List<Card> cards) {
+      this(CardSet.of(cards));
+    }
+
+    public Plays(CardSet cards) {
       Watcher watcher = new Watcher();
       this.type = CardsType.determineType(cards, watcher);
       if (this.type == null) {
         throw new IllegalArgumentException("The given card play is not a valid play!");
       }
       this.primeCard = watcher.getPrimeCard();
-      this.cards = new ArrayList<>(cards);
+      this.cards = cards;
       this.size = cards.size();
+      this.key = HandClassifier.strengthOf(
+              HandClassifier.encode(type, primeCard.getRank().ordinal()), size);
+    }
+
+    Plays(CardSet cards, int code) {
+      this.type = HandClassifier.typeOf(code);
+      this.primeCard = HandClassifier.primeCardOf(cards, code);
+      this.cards = cards;
+      this.size = cards.size();
+      this.key = HandClassifier.strengthOf(code, size);
     }
 
     public Card getPrimeCard() {
@@ -94,19 +179,39 @@ public class PlayerImpl implements Player {
     }
 
     public List<Card> getCards() {
-      return Collections.unmodifiableList(cards);
+      return Collections.unmodifiableList(cards.toList());
+    }
+
+    public CardSet getCardSet() {
+      return cards;
     }
 
+    public int getKey() {
+      return key;
+    }
+
+    /**
+     * The method decides whether the play can be played over the last play.
+     * @param last The last play, or null if the play leads.
+     * @return True if the play beats the last play.
+     */
+
+    public boolean beats(Plays last) {
+      return HandClassifier.beats(key, last == null ? HandClassifier.NO_PLAY : last.key);
+    }
+
+    /**
+     * The method orders plays by their strength keys: Rockets after Bombs after every other play,
+     * which are ordered by type, chain length and prime rank. Plays of the same type and chain
+     * length are ordered by their prime ranks, so a play beats such a play exactly if it is
+     * greater. Plays of the same prime rank and shape compare as equal.
+     * @param other The other play.
+     * @return A negative int, zero or a positive int if the play is less, equal or greater.
+     */
+
     @Override
     public int compareTo(Plays other) {
-      if (this.type != other.type) {
-        throw new IllegalArgumentException("The two plays are not of the same type!");
-      }
-      return Integer.compare(this.primeCard.getRank().getRank(),
-              other.primeCard.getRank().getRank());
+      return Integer.compare(key, other.key);
     }
   }
 }
-
-
-
@@ -0,0 +1,172 @@
+package game;
+
+import card.CardSet;
+
+import java.util.function.LongPredicate;
+
+/**
+ * The class is a compact, mutable position of the card play phase in which every hand is known:
+ * the three hands, the landlord, the seat to move and the last play, all kept as bit masks.
+ * It is meant for searches and rollouts, which play millions of moves, so play() trusts its caller
+ * to pass legal moves and does not check them. Passing is the move PASS.
+ * A Position is not thread safe. Use copy() or copyFrom() to hand positions to other threads.
+ */
+
+public final class Position {
+
+  public static final long PASS = 0L;
+
+  private final long[] hands = new long[GameState.SEATS];
+  private int landlord;
+  private int turn;
+  private long last;
+  private int lastSeat;
+  private int winner = -1;
+
+  /**
+   * Create a position.
+   * @param hands The bit masks of the three hands.
+   * @param landlord The seat of the landlord.
+   * @param turn The seat to move.
+   * @param last The bit mask of the last play, or 0 if the seat to move leads.
+   * @param lastSeat The seat that made the last play, or -1 if the seat to move leads.
+   */
+
+  public Position(long[] hands, int landlord, int turn, long last, int lastSeat) {
+    if (hands.length != GameState.SEATS) {
+      throw new IllegalArgumentException("A position needs exactly three hands!");
+    }
+    reset(hands, landlord, turn, last, lastSeat);
+  }
+
+  /**
+   * Create the position of a game driven by GameEngine, with the hands as they are.
+   * @param state The state of the game.
+   * @return The position.
+   */
+
+  public static Position of(GameState state) {
+    long[] hands = new long[GameState.SEATS];
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      hands[seat] = state.getHand(seat).mask();
+    }
+    PlayerImpl.Plays last = state.getLastPlay();
+    return new Position(hands, state.getLandlord(), state.getTurn(),
+            last == null ? 0L : last.getCardSet().mask(), state.getLastSeat());
+  }
+
+  public Position copy() {
+    return new Position(hands, landlord, turn, last, lastSeat);
+  }
+
+  /**
+   * The method overwrites this position with another one, without allocating.
+   * @param other The position to copy.
+   */
+
+  public void copyFrom(Position other) {
+    System.arraycopy(other.hands, 0, hands, 0, GameState.SEATS);
+    landlord = other.landlord;
+    turn = other.turn;
+    last = other.last;
+    lastSeat = other.lastSeat;
+    winner = other.winner;
+  }
+
+  /**
+   * The method overwrites this position, without allocating. The arguments are the same as the
+   * ones of the constructor.
+   */
+
+  void reset(long[] hands, int landlord, int turn, long last, int lastSeat) {
+    System.arraycopy(hands, 0, this.hands, 0, GameState.SEATS);
+    this.landlord = landlord;
+    this.turn = turn;
+    this.last = lastSeat < 0 ? 0L : last;
+    this.lastSeat = last == 0L ? -1 : lastSeat;
+    this.winner = -1;
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      if (hands[seat] == 0L) {
+        winner = seat;
+      }
+    }
+  }
+
+  public long getHand(int seat) { return hands[seat]; }
+
+  public int getLandlord() { return landlord; }
+
+  public int getTurn() { return turn; }
+
+  /**
+   * Check if the seat to move leads, either because nobody has played yet or because both other
+   * seats passed on its last play.
+   * @return True if the seat to move leads.
+   */
+
+  public boolean isLeading() {
+    return lastSeat < 0 || lastSeat == turn;
+  }
+
+  /**
+   * Get the play that the seat to move has to beat.
+   * @return The bit mask of the play, or 0 if the seat to move leads.
+   */
+
+  public long getLastPlay() {
+    return isLeading() ? 0L : last;
+  }
+
+  public int getLastSeat() { return isLeading() ? -1 : lastSeat; }
+
+  /**
+   * Get the seat that ran out of cards.
+   * @return The winning seat, or -1 if the game goes on.
+   */
+
+  public int getWinner() { return winner; }
+
+  public boolean isOver() { return winner >= 0; }
+
+  public boolean isPartner(int seat, int other) {
+    return seat == other || (seat != landlord && other != landlord);
+  }
+
+  /**
+   * The method enumerates the legal moves of the seat to move, except for PASS.
+   * @param generator The generator to use.
+   * @param visitor Receives the bit mask of each move, returns false to stop the enumeration.
+   * @return The number of moves passed to the visitor.
+   */
+
+  public int moves(MoveGenerator generator, LongPredicate visitor) {
+    return generator.generate(hands[turn], getLastPlay(), visitor);
+  }
+
+  /**
+   * The method plays a move of the seat to move and passes the turn on.
+   * @param move The bit mask of a legal move, or PASS. The seat that leads cannot pass.
+   */
+
+  public void play(long move) {
+    if (move != PASS) {
+      hands[turn] &= ~move;
+      last = move;
+      lastSeat = turn;
+      if (hands[turn] == 0L) {
+        winner = turn;
+      }
+    }
+    turn = turn == GameState.SEATS - 1 ? 0 : turn + 1;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      sb.append(seat == landlord ? "L" : "P").append(seat).append(seat == turn ? "* " : "  ")
+              .append(CardSet.of(hands[seat])).append('\n');
+    }
+    return sb.append("last: ").append(isLeading() ? "-" : CardSet.of(last)).toString();
+  }
+}
@@ -0,0 +1,222 @@
+package game;
+
+import card.CardSet;
+import record.GameCorpus;
+import record.GameRecord;
+import record.GameView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * The class replays recorded games under the rules of the game. It runs the recorded bids through
+ * Bidding, rebuilds the GameState and a PlayerImpl for every seat, and plays every recorded move
+ * through PlayerImpl.playCards(), so each play is checked to be held, to be of a card type and to
+ * beat the last play. A record that breaks a rule fails the replay with a message that names the
+ * move. Replaying a corpus after the rules of CardsType change shows every game they affect.
+ * A game can also be reproduced: reproduce() plays the seed of a record again with the given
+ * strategies and checks that every deal, bid and move comes out the same.
+ * A Replay reuses its state for every game, so it is not thread safe. Use one per thread.
+ */
+
+public final class Replay {
+
+  private final Bidding bidding = new Bidding();
+  private final GameState state = new GameState();
+  private final PlayerImpl[] players = new PlayerImpl[GameState.SEATS];
+  private final ByteBuffer buffer =
+          ByteBuffer.allocate(GameRecord.MAX_ENCODED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private final GameView view = new GameView();
+
+  /**
+   * Get the state after the last replayed move. It is reused by the next replay.
+   * @return The state.
+   */
+
+  public GameState getState() {
+    return state;
+  }
+
+  /**
+   * Get the player of a seat after the last replayed move. It is replaced by the next replay.
+   * @param seat The seat.
+   * @return The player.
+   */
+
+  public PlayerImpl getPlayer(int seat) {
+    return players[seat];
+  }
+
+  /**
+   * The method replays a record.
+   * @param record The record.
+   * @return The result of the game. It counts no redeals, since a record holds the last deal only.
+   * @throws IllegalStateException If the record breaks a rule of the game.
+   */
+
+  public GameEngine.Result replay(GameRecord record) {
+    buffer.clear();
+    record.encode(buffer);
+    buffer.flip();
+    return replay(view.wrap(buffer, 0, buffer.limit()));
+  }
+
+  /**
+   * The method replays a record in place. The cursor of the view is rewound and run to the end.
+   * @param view The view of the record.
+   * @return The result of the game. It counts no redeals, since a record holds the last deal only.
+   * @throws IllegalStateException If the record breaks a rule of the game.
+   */
+
+  public GameEngine.Result replay(GameView view) {
+    view.rewind();
+    state.deal(CardSet.of(view.getDeal(0)), CardSet.of(view.getDeal(1)),
+            CardSet.of(view.getDeal(2)), CardSet.of(view.getDeal(3)));
+    bidding.start(view.getFirstBidder());
+    for (int i = 0; i < view.getBidCount(); i++) {
+      try {
+        bidding.bid(bidding.getTurn(), view.getBid(i));
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        throw new IllegalStateException("Bid " + i + " of the record is not allowed.", e);
+      }
+    }
+    if (!bidding.isOver()) {
+      throw new IllegalStateException("The bidding of the record is not over.");
+    }
+    int landlord = bidding.isRedeal() ? bidding.getFirst() : bidding.getLandlord();
+    if (landlord != view.getLandlord()) {
+      throw new IllegalStateException("The landlord of the record does not match its bidding.");
+    }
+    state.setBid(landlord, bidding.isRedeal() ? 1 : bidding.getBid());
+    state.setHand(landlord, state.getHand(landlord).union(state.getKitty()));
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      players[seat] = new PlayerImpl(state.getHand(seat));
+    }
+
+    int turns = 0;
+    int bombs = 0;
+    try {
+      while (view.next()) {
+        int turn = view.getSeat();
+        state.setTurn(turn);
+        if (state.getLastSeat() == turn) {
+          state.clearLastPlay();
+        }
+        turns++;
+        if (view.getMove() == GameRecord.PASS) {
+          continue;
+        }
+        PlayerImpl.Plays play;
+        try {
+          play = players[turn].playCards(state.getLastPlay(), CardSet.of(view.getMove()));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalStateException("Move " + view.getMoveIndex() + " of seat " + turn
+                  + " breaks the rules: " + e.getMessage(), e);
+        }
+        state.recordPlay(turn, play);
+        state.setHand(turn, players[turn].getHandSet());
+        if (play.getType() == CardsType.Bomb || play.getType() == CardsType.Rocket) {
+          bombs++;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("The moves of the record cannot be decoded.", e);
+    }
+    int winner = view.getSeat();
+    if (winner < 0 || !players[winner].getHandSet().isEmpty()) {
+      throw new IllegalStateException("The game of the record is not over.");
+    }
+    return new GameEngine.Result(landlord, state.getBid(), winner, turns, bombs, 0);
+  }
+
+  /**
+   * The method plays the game of a record again from its seed, and checks that it comes out the
+   * same as the record.
+   * @param view The view of the record, which must hold a seed.
+   * @param strategies Creates the strategy of each seat, in the order of the seats.
+   * @return True if the game came out the same.
+   */
+
+  public static boolean reproduce(GameView view, Supplier<Strategy> strategies) {
+    if (!view.isSeeded()) {
+      throw new IllegalArgumentException("The record holds no seed!");
+    }
+    GameEngine engine = new GameEngine(strategies.get(), strategies.get(), strategies.get(),
+            new SplittableRandom(view.getSeed()));
+    engine.play(view.getSeed());
+    GameRecord played = engine.getRecord();
+    if (played.getFirstBidder() != view.getFirstBidder()
+            || played.getBidCount() != view.getBidCount()) {
+      return false;
+    }
+    for (int i = 0; i <= GameState.SEATS; i++) {
+      if (played.getDeal(i) != view.getDeal(i)) {
+        return false;
+      }
+    }
+    for (int i = 0; i < view.getBidCount(); i++) {
+      if (played.getBid(i) != view.getBid(i)) {
+        return false;
+      }
+    }
+    view.rewind();
+    int moves = 0;
+    while (view.next()) {
+      if (moves == played.getMoveCount() || played.getMove(moves++) != view.getMove()) {
+        return false;
+      }
+    }
+    return moves == played.getMoveCount();
+  }
+
+  /**
+   * Replays every game of record files and prints how many broke a rule. With the option
+   * --reproduce, every game is also played again from its seed by GreedyStrategy seats.
+   * @param args The paths of the record files, and the option --reproduce.
+   * @throws IOException If a file cannot be mapped.
+   */
+
+  public static void main(String[] args) throws IOException {
+    boolean reproduce = false;
+    int files = 0;
+    Path[] paths = new Path[args.length];
+    for (String arg : args) {
+      if (arg.equals("--reproduce")) {
+        reproduce = true;
+      } else {
+        paths[files++] = Path.of(arg);
+      }
+    }
+    GameCorpus corpus = GameCorpus.open(Arrays.copyOf(paths, files));
+    Replay replay = new Replay();
+    long games = 0;
+    long broken = 0;
+    long differ = 0;
+    long start = System.nanoTime();
+    for (var it = corpus.stream().iterator(); it.hasNext(); ) {
+      GameView game = it.next();
+      games++;
+      try {
+        replay.replay(game);
+      } catch (IllegalStateException e) {
+        if (broken++ < 10) {
+          System.out.println("Game " + (games - 1) + ": " + e.getMessage());
+        }
+      }
+      if (reproduce && game.isSeeded() && !reproduce(game, GreedyStrategy::new)) {
+        if (differ++ < 10) {
+          System.out.println("Game " + (games - 1) + " does not reproduce from its seed.");
+        }
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%d games replayed in %.2f s (%.0f games/s), %d broke a rule%s%n", games,
+            seconds, games / seconds, broken,
+            reproduce ? ", " + differ + " did not reproduce" : "");
+  }
+}
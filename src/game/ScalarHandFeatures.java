@@ -0,0 +1,53 @@
+package game;
+
+import card.CardSet;
+
+/**
+ * The class computes the rank signatures and the features of hands one at a time, with the bit
+ * tricks of CardSet.rankSignature() and Long.bitCount(). It is the fallback of HandFeatures when
+ * the Vector API is not available, and the reference that VectorHandFeatures is checked against.
+ */
+
+final class ScalarHandFeatures implements HandFeatures {
+
+  static final ScalarHandFeatures INSTANCE = new ScalarHandFeatures();
+
+  // the lowest bit of each of the 15 counts of a rank signature
+  static final long NIBBLES = 0x0111111111111111L;
+
+  // the lowest bit of the counts of the ranks from Three to Ace, which can form a chain
+  static final long CHAINS = 0x0000111111111111L;
+
+  private ScalarHandFeatures() {
+  }
+
+  @Override
+  public void signatures(long[] masks, long[] signatures, int count) {
+    for (int i = 0; i < count; i++) {
+      signatures[i] = CardSet.rankSignature(masks[i]);
+    }
+  }
+
+  @Override
+  public void features(long[] masks, long[] features, int count) {
+    for (int i = 0; i < count; i++) {
+      features[i] = HandFeatures.of(masks[i]);
+    }
+  }
+
+  /**
+   * Get the longest run of consecutive ranks from Three to Ace of a set of ranks.
+   * @param ranks The lowest bits of the counts of the ranks of the set.
+   * @return The length of the run.
+   */
+
+  static int run(long ranks) {
+    long m = ranks & CHAINS;
+    int length = 0;
+    while (m != 0L) {
+      m &= m >>> 4;
+      length++;
+    }
+    return length;
+  }
+}
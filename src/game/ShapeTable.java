@@ -0,0 +1,165 @@
+package game;
+
+import card.Rank;
+
+/**
+ * The class implements a lookup table of every legal card play shape.
+ * A shape is the rank signature of a play (see HandClassifier), and the table maps it straight to
+ * the classification code of the play. The shapes are enumerated once at start up: every core of a
+ * card type (a single rank, a chain, a trio, a four or an airplane) is combined with every choice
+ * of kickers, and each candidate is classified by HandClassifier, so the table agrees with the
+ * classifier by construction.
+ * The table is an open addressing hash table over two primitive arrays with linear probing.
+ * There is only one table required, so singleton pattern is applied.
+ */
+
+public final class ShapeTable {
+
+  private static final int RANKS = HandClassifier.RANKS;
+  private static final int TWO = Rank.Two.ordinal();
+  private static final int LOWER_JOKER = Rank.LowerJoker.ordinal();
+  private static final int MAX_CHAIN = 12;
+  private static final int MAX_AIRPLANE = 5;
+  private static final ShapeTable ourInstance = build();
+
+  private final long[] keys;
+  private final int[] codes;
+  private final int shift;
+  private int size;
+
+  public static ShapeTable getInstance() {
+    return ourInstance;
+  }
+
+  private ShapeTable(int capacity) {
+    keys = new long[capacity];
+    codes = new int[capacity];
+    shift = 64 - Integer.numberOfTrailingZeros(capacity);
+  }
+
+  /**
+   * The method enumerates every legal shape and builds a new table of them.
+   * @return The table.
+   */
+
+  public static ShapeTable build() {
+    ShapeTable table = new ShapeTable(1 << 18);
+    for (int r = 0; r < RANKS; r++) {
+      for (int c = 1; c <= capacity(r); c++) {
+        table.offer(put(0L, r, c));
+      }
+    }
+    table.offer(put(put(0L, LOWER_JOKER, 1), LOWER_JOKER + 1, 1));
+    for (int width = 2; width <= MAX_CHAIN; width++) {
+      for (int start = 0; start + width <= TWO; start++) {
+        for (int c = 1; c <= 3; c++) {
+          table.offer(chain(start, width, c));
+        }
+      }
+    }
+    for (int r = 0; r <= TWO; r++) {
+      table.offerWithKickers(put(0L, r, 3), 1);
+      table.offerWithKickers(put(0L, r, 4), 2);
+    }
+    for (int width = 2; width <= MAX_AIRPLANE; width++) {
+      for (int start = 0; start + width <= TWO; start++) {
+        table.offerWithKickers(chain(start, width, 3), width);
+      }
+    }
+    return table;
+  }
+
+  /**
+   * The method looks up the classification code of a card play by its rank signature.
+   * @param signature The rank signature of the play.
+   * @return The classification code, or HandClassifier.INVALID if the play is not valid.
+   */
+
+  public int lookup(long signature) {
+    int mask = keys.length - 1;
+    for (int i = slot(signature); ; i = (i + 1) & mask) {
+      long key = keys[i];
+      if (key == 0L) {
+        return HandClassifier.INVALID;
+      } else if (key == signature) {
+        return codes[i];
+      }
+    }
+  }
+
+  /**
+   * Get the number of shapes in the table.
+   * @return The number of shapes.
+   */
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the number of slots of the table.
+   * @return The number of slots.
+   */
+
+  public int capacity() {
+    return keys.length;
+  }
+
+  private void offerWithKickers(long core, int kickers) {
+    addKickers(core, kickers, 1, 0);
+    addKickers(core, kickers, 2, 0);
+  }
+
+  private void addKickers(long signature, int remain, int unit, int from) {
+    if (remain == 0) {
+      offer(signature);
+      return;
+    }
+    for (int r = from; r < RANKS; r++) {
+      if (HandClassifier.count(signature, r) + unit <= capacity(r)) {
+        addKickers(put(signature, r, unit), remain - 1, unit, unit == 1 ? r : r + 1);
+      }
+    }
+  }
+
+  private void offer(long signature) {
+    int size = 0;
+    for (int r = 0; r < RANKS; r++) {
+      size += HandClassifier.count(signature, r);
+    }
+    int code = HandClassifier.classify(signature, size);
+    if (code == HandClassifier.INVALID) {
+      return;
+    }
+    int mask = keys.length - 1;
+    int i = slot(signature);
+    while (keys[i] != 0L && keys[i] != signature) {
+      i = (i + 1) & mask;
+    }
+    if (keys[i] == 0L) {
+      keys[i] = signature;
+      codes[i] = code;
+      this.size++;
+    }
+  }
+
+  private int slot(long signature) {
+    return (int) ((signature * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  private static long chain(int start, int width, int count) {
+    long signature = 0L;
+    for (int r = start; r < start + width; r++) {
+      signature = put(signature, r, count);
+    }
+    return signature;
+  }
+
+  private static long put(long signature, int rank, int count) {
+    return signature + ((long) count << (rank << 2));
+  }
+
+  private static int capacity(int rank) {
+    return rank >= LOWER_JOKER ? 1 : 4;
+  }
+}
@@ -0,0 +1,28 @@
+package game;
+
+import card.CardSet;
+
+/**
+ * The interface defines how a seat makes its decisions in a game driven by GameEngine.
+ */
+
+public interface Strategy {
+
+  /**
+   * The method decides the bid of a seat during the landlord bidding.
+   * @param state The state of the game. The landlord is the highest bidder so far.
+   * @param seat The seat to bid.
+   * @return 0 to pass, or a bid from 1 to 3 that is greater than the current bid.
+   */
+
+  int bid(GameState state, int seat);
+
+  /**
+   * The method decides the play of a seat.
+   * @param state The state of the game.
+   * @param seat The seat to move.
+   * @return The cards to play, or null or an empty set to pass. A seat that leads cannot pass.
+   */
+
+  CardSet play(GameState state, int seat);
+}
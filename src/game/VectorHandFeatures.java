@@ -0,0 +1,131 @@
+package game;
+
+import card.CardSet;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The class computes the rank signatures and the features of hands with the Vector API, one hand
+ * per lane of the widest long vector of the CPU, and leaves the hands past the last full vector of
+ * a batch to the scalar code. The Vector API of JDK 17 counts no bits, so the ranks of a set are
+ * summed up by a multiplication, and the longest run of a set is found in four steps of a binary
+ * search instead of a loop that shortens every run by one.
+ * The features are computed in five passes over the batch: the sizes and the Rocket first, then
+ * the count and the longest run of the ranks of at least one to four cards. The passes are kept
+ * small on purpose: C2 gives up inlining a method whose graph grows too large, and then boxes every
+ * vector of it, which is slower than the scalar code. The masks of a batch stay in the cache from
+ * one pass to the next.
+ * The class needs --add-modules jdk.incubator.vector, and is only loaded by
+ * HandFeatures.getInstance() when that module is present.
+ */
+
+final class VectorHandFeatures implements HandFeatures {
+
+  static final VectorHandFeatures INSTANCE = new VectorHandFeatures();
+
+  private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+  private static final long REGULAR = (1L << 52) - 1;
+  private static final long BYTES = 0x0F0F0F0F0F0F0F0FL;
+
+  private VectorHandFeatures() {
+  }
+
+  @Override
+  public void signatures(long[] masks, long[] signatures, int count) {
+    int bound = SPECIES.loopBound(count);
+    for (int i = 0; i < bound; i += SPECIES.length()) {
+      signature(LongVector.fromArray(SPECIES, masks, i)).intoArray(signatures, i);
+    }
+    for (int i = bound; i < count; i++) {
+      signatures[i] = CardSet.rankSignature(masks[i]);
+    }
+  }
+
+  @Override
+  public void features(long[] masks, long[] features, int count) {
+    int bound = SPECIES.loopBound(count);
+    sizes(masks, features, bound);
+    for (int k = 1; k <= 4; k++) {
+      ranks(masks, features, bound, k);
+    }
+    for (int i = bound; i < count; i++) {
+      features[i] = HandFeatures.of(masks[i]);
+    }
+  }
+
+  private static void sizes(long[] masks, long[] features, int bound) {
+    for (int i = 0; i < bound; i += SPECIES.length()) {
+      LongVector s = signature(LongVector.fromArray(SPECIES, masks, i));
+      LongVector size = s.and(BYTES).add(s.lanewise(VectorOperators.LSHR, 4).and(BYTES))
+              .mul(0x0101010101010101L).lanewise(VectorOperators.LSHR, 56);
+      LongVector rocket = s.lanewise(VectorOperators.LSHR, 52)
+              .and(s.lanewise(VectorOperators.LSHR, 56)).and(1L);
+      size.or(rocket.lanewise(VectorOperators.LSHL, ROCKET)).intoArray(features, i);
+    }
+  }
+
+  /**
+   * The pass adds the count and the longest run of the ranks of at least k cards. A count c of a
+   * signature is at least k if c + 4 - k reaches 4, that is if its third bit is set, and the sum
+   * never carries into the next count.
+   */
+
+  private static void ranks(long[] masks, long[] features, int bound, int k) {
+    long bias = (4 - k) * ScalarHandFeatures.NIBBLES;
+    int shift = (k - 1) * 6;
+    for (int i = 0; i < bound; i += SPECIES.length()) {
+      LongVector s = signature(LongVector.fromArray(SPECIES, masks, i));
+      LongVector ranks = s.add(bias).lanewise(VectorOperators.LSHR, 2)
+              .and(ScalarHandFeatures.NIBBLES);
+      LongVector f = LongVector.fromArray(SPECIES, features, i).or(ranks
+              .mul(0x1111111111111111L).lanewise(VectorOperators.LSHR, 60)
+              .lanewise(VectorOperators.LSHL, RANKS + shift));
+      if (k < 4) {
+        f = f.or(run(ranks.and(ScalarHandFeatures.CHAINS))
+                .lanewise(VectorOperators.LSHL, SOLO_CHAIN + shift));
+      }
+      f.intoArray(features, i);
+    }
+  }
+
+  private static LongVector signature(LongVector masks) {
+    LongVector x = masks.and(REGULAR);
+    x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+    x = x.and(0x3333333333333333L)
+            .add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+    return x.or(masks.and(1L << 52)).or(masks.lanewise(VectorOperators.LSHR, 53).and(1L)
+            .lanewise(VectorOperators.LSHL, 56));
+  }
+
+  /**
+   * The method finds the longest runs of sets of ranks, given as the lowest bits of their counts.
+   * It shifts the runs of 8, 4, 2 and 1 ranks of each lane onto the starts of the runs found so
+   * far, and keeps every step that leaves a run. The steps are written out, since one more call
+   * is enough to push the passes over the inlining limit of C2.
+   */
+
+  private static LongVector run(LongVector r1) {
+    LongVector r2 = r1.and(r1.lanewise(VectorOperators.LSHR, 4));
+    LongVector r4 = r2.and(r2.lanewise(VectorOperators.LSHR, 8));
+    LongVector r8 = r4.and(r4.lanewise(VectorOperators.LSHR, 16));
+    VectorMask<Long> found = r8.compare(VectorOperators.NE, 0L);
+    LongVector length = LongVector.zero(SPECIES).blend(8L, found);
+    LongVector starts = LongVector.broadcast(SPECIES, ScalarHandFeatures.CHAINS).blend(r8, found);
+    LongVector longer = starts.and(r4.lanewise(VectorOperators.LSHR,
+            length.lanewise(VectorOperators.LSHL, 2)));
+    found = longer.compare(VectorOperators.NE, 0L);
+    starts = starts.blend(longer, found);
+    length = length.add(4L, found);
+    longer = starts.and(r2.lanewise(VectorOperators.LSHR,
+            length.lanewise(VectorOperators.LSHL, 2)));
+    found = longer.compare(VectorOperators.NE, 0L);
+    starts = starts.blend(longer, found);
+    length = length.add(2L, found);
+    longer = starts.and(r1.lanewise(VectorOperators.LSHR,
+            length.lanewise(VectorOperators.LSHL, 2)));
+    found = longer.compare(VectorOperators.NE, 0L);
+    return length.add(1L, found);
+  }
+}
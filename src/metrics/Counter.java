@@ -0,0 +1,35 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class counts events. It is backed by a LongAdder, so threads that count at the same time
+ * increment cells of their own instead of contending for one.
+ * A Counter is thread safe.
+ */
+
+public final class Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  public void increment() {
+    count.increment();
+  }
+
+  public void add(long value) {
+    count.add(value);
+  }
+
+  public long get() {
+    return count.sum();
+  }
+
+  public void reset() {
+    count.reset();
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(get());
+  }
+}
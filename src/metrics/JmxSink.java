@@ -0,0 +1,166 @@
+package metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * The class exposes a metrics registry as an MBean. Every counter is a read-only attribute, and
+ * every histogram gives the attributes name.count, name.p50, name.p99, name.p999 and name.max, in
+ * nanoseconds. The attribute Enabled turns metrics on and off, and the operations dump and reset
+ * return the text dump and reset every metric. The attributes are read from the registry whenever
+ * they are asked for, so metrics that are registered later show up too.
+ */
+
+public final class JmxSink implements DynamicMBean, MetricsSink {
+
+  public static final String OBJECT_NAME = "fight-the-landlord:type=Metrics";
+
+  private static final String ENABLED = "Enabled";
+
+  private final Metrics metrics;
+  private final Map<String, Long> values = new LinkedHashMap<>();
+
+  public JmxSink(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * The method registers the registry of the game with the platform MBean server.
+   * @return The sink.
+   * @throws JMException If the MBean cannot be registered.
+   */
+
+  public static JmxSink register() throws JMException {
+    JmxSink sink = new JmxSink(Metrics.getInstance());
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    server.registerMBean(sink, new ObjectName(OBJECT_NAME));
+    return sink;
+  }
+
+  @Override
+  public void counter(String name, Counter counter) {
+    values.put(name, counter.get());
+  }
+
+  @Override
+  public void histogram(String name, LatencyHistogram histogram) {
+    values.put(name + ".count", histogram.getCount());
+    values.put(name + ".p50", histogram.getValueAtPercentile(50));
+    values.put(name + ".p99", histogram.getValueAtPercentile(99));
+    values.put(name + ".p999", histogram.getValueAtPercentile(99.9));
+    values.put(name + ".max", histogram.getMax());
+  }
+
+  @Override
+  public synchronized Object getAttribute(String attribute) throws AttributeNotFoundException {
+    if (attribute.equals(ENABLED)) {
+      return Metrics.isEnabled();
+    }
+    Long value = refresh().get(attribute);
+    if (value == null) {
+      throw new AttributeNotFoundException("There is no metric " + attribute + ".");
+    }
+    return value;
+  }
+
+  @Override
+  public synchronized void setAttribute(Attribute attribute)
+          throws AttributeNotFoundException, InvalidAttributeValueException {
+    if (!attribute.getName().equals(ENABLED)) {
+      throw new AttributeNotFoundException("Only " + ENABLED + " can be set.");
+    }
+    if (!(attribute.getValue() instanceof Boolean)) {
+      throw new InvalidAttributeValueException(ENABLED + " must be a Boolean.");
+    }
+    Metrics.setEnabled((Boolean) attribute.getValue());
+  }
+
+  @Override
+  public synchronized AttributeList getAttributes(String[] attributes) {
+    refresh();
+    AttributeList list = new AttributeList();
+    for (String attribute : attributes) {
+      if (attribute.equals(ENABLED)) {
+        list.add(new Attribute(ENABLED, Metrics.isEnabled()));
+      } else if (values.containsKey(attribute)) {
+        list.add(new Attribute(attribute, values.get(attribute)));
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public synchronized AttributeList setAttributes(AttributeList attributes) {
+    AttributeList set = new AttributeList();
+    for (Attribute attribute : attributes.asList()) {
+      try {
+        setAttribute(attribute);
+        set.add(attribute);
+      } catch (JMException e) {
+        // attributes that cannot be set are left out of the result
+      }
+    }
+    return set;
+  }
+
+  @Override
+  public Object invoke(String action, Object[] params, String[] signature)
+          throws ReflectionException {
+    switch (action) {
+      case "dump":
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        metrics.report(new TextSink(out));
+        return bytes.toString(StandardCharsets.UTF_8);
+      case "reset":
+        metrics.reset();
+        return null;
+      default:
+        throw new ReflectionException(new NoSuchMethodException(action),
+                "There is no operation " + action + ".");
+    }
+  }
+
+  @Override
+  public synchronized MBeanInfo getMBeanInfo() {
+    refresh();
+    MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size() + 1];
+    attributes[0] = new MBeanAttributeInfo(ENABLED, "boolean", "Whether metrics are recorded.",
+            true, true, true);
+    int i = 1;
+    for (String name : values.keySet()) {
+      attributes[i++] = new MBeanAttributeInfo(name, "java.lang.Long", name, true, false, false);
+    }
+    MBeanOperationInfo[] operations = {
+        new MBeanOperationInfo("dump", "The text dump of every metric.", null, "java.lang.String",
+                MBeanOperationInfo.INFO),
+        new MBeanOperationInfo("reset", "Resets every metric.", null, "void",
+                MBeanOperationInfo.ACTION)
+    };
+    return new MBeanInfo(getClass().getName(), "The metrics of the game.", attributes, null,
+            operations, null);
+  }
+
+  private Map<String, Long> refresh() {
+    values.clear();
+    metrics.report(this);
+    return values;
+  }
+}
@@ -0,0 +1,165 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The class counts latencies in log-linear buckets, like an HdrHistogram with a precision of
+ * 5 bits: values below 32 have a bucket each, and every power of two above is split into 32
+ * buckets, so a percentile is off by at most 1 in 32 of its value. Values are nanoseconds by
+ * convention, but any non-negative long can be recorded.
+ * Recording is a single atomic increment, without locks or allocation, so any number of threads
+ * can record at the same time. The counts are striped by thread, one stripe per core up to 16, so
+ * threads that record the same value do not contend for the same cache line. Reads sum up the
+ * stripes, and are not atomic snapshots: a percentile taken while other threads record may miss
+ * their latest values.
+ */
+
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+  private static final int STRIPES = Math.min(16,
+          Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+  private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+
+  /**
+   * The method records a value. Negative values count as 0.
+   * @param value The value.
+   */
+
+  public void record(long value) {
+    int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+    counts.getAndIncrement(stripe * BUCKETS + bucketOf(Math.max(0L, value)));
+  }
+
+  /**
+   * The method records the time since a start taken by Metrics.start() or Metrics.sample(), and
+   * does nothing if the start is 0, that is if metrics were disabled or the event was not sampled.
+   * @param start The start in nanoseconds, or 0.
+   */
+
+  public void recordSince(long start) {
+    if (start != 0L) {
+      record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Get the number of recorded values.
+   * @return The number of values.
+   */
+
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Get the value at a percentile, that is the highest value of the bucket that holds it.
+   * @param percentile The percentile, from 0 to 100.
+   * @return The value, or 0 if no value was recorded.
+   */
+
+  public long getValueAtPercentile(double percentile) {
+    long[] snapshot = snapshot();
+    long total = 0;
+    for (long count : snapshot) {
+      total += count;
+    }
+    if (total == 0) {
+      return 0L;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(total * Math.min(100.0, percentile) / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return highestValueOf(i);
+      }
+    }
+    return highestValueOf(BUCKETS - 1);
+  }
+
+  /**
+   * Get the highest recorded value, to the precision of its bucket.
+   * @return The value, or 0 if no value was recorded.
+   */
+
+  public long getMax() {
+    long[] snapshot = snapshot();
+    for (int i = BUCKETS - 1; i >= 0; i--) {
+      if (snapshot[i] != 0) {
+        return highestValueOf(i);
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * The method adds the counts of another histogram to this one.
+   * @param other The other histogram.
+   */
+
+  public void add(LatencyHistogram other) {
+    long[] snapshot = other.snapshot();
+    for (int i = 0; i < BUCKETS; i++) {
+      if (snapshot[i] != 0) {
+        counts.getAndAdd(i, snapshot[i]);
+      }
+    }
+  }
+
+  public void reset() {
+    for (int i = 0; i < counts.length(); i++) {
+      counts.set(i, 0L);
+    }
+  }
+
+  /**
+   * Get the count, the median, the 90th, 99th and 99.9th percentiles and the maximum, with the
+   * values in microseconds.
+   * @return The summary.
+   */
+
+  @Override
+  public String toString() {
+    return String.format("n=%d p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+            getCount(), getValueAtPercentile(50) / 1e3, getValueAtPercentile(90) / 1e3,
+            getValueAtPercentile(99) / 1e3, getValueAtPercentile(99.9) / 1e3, getMax() / 1e3);
+  }
+
+  /**
+   * The method sums up the stripes into one count per bucket.
+   */
+
+  private long[] snapshot() {
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < counts.length(); i++) {
+      snapshot[i % BUCKETS] += counts.get(i);
+    }
+    return snapshot;
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BITS;
+    return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  static long highestValueOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket >>> SUB_BITS) - 1;
+    long low = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << shift;
+    return low + (1L << shift) - 1;
+  }
+}
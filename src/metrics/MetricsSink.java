@@ -0,0 +1,25 @@
+package metrics;
+
+/**
+ * The interface receives the metrics of a registry, when Metrics.report() walks them in the order
+ * of their names.
+ */
+
+public interface MetricsSink {
+
+  /**
+   * The method receives a counter.
+   * @param name The name of the counter.
+   * @param counter The counter.
+   */
+
+  void counter(String name, Counter counter);
+
+  /**
+   * The method receives a histogram.
+   * @param name The name of the histogram.
+   * @param histogram The histogram.
+   */
+
+  void histogram(String name, LatencyHistogram histogram);
+}
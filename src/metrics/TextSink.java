@@ -0,0 +1,27 @@
+package metrics;
+
+import java.io.PrintStream;
+
+/**
+ * The class dumps metrics as text, one metric per line: the name and the count of a counter, or
+ * the name and the summary of a histogram.
+ */
+
+public final class TextSink implements MetricsSink {
+
+  private final PrintStream out;
+
+  public TextSink(PrintStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void counter(String name, Counter counter) {
+    out.printf("%-40s %d%n", name, counter.get());
+  }
+
+  @Override
+  public void histogram(String name, LatencyHistogram histogram) {
+    out.printf("%-40s %s%n", name, histogram);
+  }
+}
@@ -0,0 +1,270 @@
+package record;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The class maps one or more record files written by GameRecordWriter into memory and scans their
+ * records in place. Opening a corpus walks the block headers once and indexes every block. A scan
+ * hands out one GameView per record, which reads the mapped bytes directly, so no record is copied
+ * or decoded into objects.
+ * Blocks are the unit of parallelism: the spliterator of a corpus splits its range of blocks in
+ * half, so a parallel stream scans disjoint blocks on every thread.
+ * A file is mapped in regions of whole blocks, each at most 1 GB, so files larger than a single
+ * MappedByteBuffer can hold are supported. The mappings are released when the corpus is garbage
+ * collected.
+ * A GameCorpus is immutable and thread safe. Its streams and spliterators are not.
+ */
+
+public final class GameCorpus {
+
+  private static final long REGION_SIZE = 1L << 30;
+
+  private final ByteBuffer[] regions;
+  private final int[] blockRegion;
+  private final int[] blockOffset;
+  private final int[] blockBytes;
+  private final long[] recordsBefore;
+
+  private GameCorpus(List<ByteBuffer> regions, Index index) {
+    this.regions = regions.toArray(new ByteBuffer[0]);
+    this.blockRegion = Arrays.copyOf(index.region, index.blocks);
+    this.blockOffset = Arrays.copyOf(index.offset, index.blocks);
+    this.blockBytes = Arrays.copyOf(index.bytes, index.blocks);
+    this.recordsBefore = Arrays.copyOf(index.recordsBefore, index.blocks + 1);
+  }
+
+  /**
+   * Map record files into one corpus, in the order of the paths.
+   * @param paths The paths of the files.
+   * @return The corpus.
+   * @throws IOException If a file cannot be mapped, or is not a valid record file.
+   */
+
+  public static GameCorpus open(Path... paths) throws IOException {
+    return open(REGION_SIZE, paths);
+  }
+
+  static GameCorpus open(long regionSize, Path... paths) throws IOException {
+    List<ByteBuffer> regions = new ArrayList<>();
+    Index index = new Index();
+    for (Path path : paths) {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        map(channel, regionSize, regions, index);
+      }
+    }
+    return new GameCorpus(regions, index);
+  }
+
+  private static void map(FileChannel channel, long regionSize, List<ByteBuffer> regions,
+                          Index index) throws IOException {
+    long size = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(GameRecordWriter.FILE_HEADER_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+      // reads the whole header
+    }
+    if (header.hasRemaining() || header.getInt(0) != GameRecordWriter.MAGIC
+            || header.getShort(4) != GameRecordWriter.VERSION) {
+      throw new IOException("The file is not a record file of a known version.");
+    }
+    int blockSize = header.getInt(8);
+    if (blockSize <= GameRecordWriter.BLOCK_HEADER_SIZE || blockSize > regionSize) {
+      throw new IOException("The file has an invalid block size.");
+    }
+    long start = GameRecordWriter.FILE_HEADER_SIZE;
+    while (start < size) {
+      MappedByteBuffer mapped =
+              channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+      ByteBuffer region = mapped.order(ByteOrder.LITTLE_ENDIAN);
+      int at = 0;
+      while (at < region.limit()) {
+        if (region.limit() - at < GameRecordWriter.BLOCK_HEADER_SIZE) {
+          break;
+        }
+        int bytes = region.getInt(at);
+        int count = region.getInt(at + 4);
+        if (bytes < 0 || bytes > blockSize - GameRecordWriter.BLOCK_HEADER_SIZE || count < 0) {
+          throw new IOException("The file holds a block of invalid size.");
+        }
+        if (region.limit() - at - GameRecordWriter.BLOCK_HEADER_SIZE < bytes) {
+          break;
+        }
+        index.add(regions.size(), at + GameRecordWriter.BLOCK_HEADER_SIZE, bytes, count);
+        at += GameRecordWriter.BLOCK_HEADER_SIZE + bytes;
+      }
+      if (at == 0) {
+        throw new IOException("The file ends in the middle of a block.");
+      }
+      regions.add(region);
+      start += at;
+    }
+  }
+
+  /**
+   * Get the number of records of the corpus.
+   * @return The number of records.
+   */
+
+  public long size() {
+    return recordsBefore[recordsBefore.length - 1];
+  }
+
+  public int getBlockCount() {
+    return blockBytes.length;
+  }
+
+  /**
+   * Get a spliterator over every record of the corpus. It reuses one view for every record, so
+   * a view must not be kept beyond the call that receives it.
+   * @return The spliterator.
+   */
+
+  public Spliterator<GameView> spliterator() {
+    return new Blocks(0, blockBytes.length);
+  }
+
+  /**
+   * Get a sequential stream of the records of the corpus. Its views are reused as spliterator()
+   * describes.
+   * @return The stream.
+   */
+
+  public Stream<GameView> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Get a parallel stream of the records of the corpus. Its views are reused as spliterator()
+   * describes, one view per split.
+   * @return The stream.
+   */
+
+  public Stream<GameView> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  /**
+   * The class indexes the blocks of the corpus while the files are mapped.
+   */
+
+  private static final class Index {
+    private int blocks;
+    private int[] region = new int[256];
+    private int[] offset = new int[256];
+    private int[] bytes = new int[256];
+    private long[] recordsBefore = new long[257];
+
+    void add(int region, int offset, int bytes, int count) {
+      if (blocks == this.bytes.length) {
+        this.region = Arrays.copyOf(this.region, blocks * 2);
+        this.offset = Arrays.copyOf(this.offset, blocks * 2);
+        this.bytes = Arrays.copyOf(this.bytes, blocks * 2);
+        this.recordsBefore = Arrays.copyOf(this.recordsBefore, blocks * 2 + 1);
+      }
+      this.region[blocks] = region;
+      this.offset[blocks] = offset;
+      this.bytes[blocks] = bytes;
+      this.recordsBefore[blocks + 1] = this.recordsBefore[blocks] + count;
+      blocks++;
+    }
+  }
+
+  /**
+   * The class scans the records of a range of blocks.
+   */
+
+  private final class Blocks implements Spliterator<GameView> {
+    private final GameView view = new GameView();
+    private int block;
+    private final int end;
+    private ByteBuffer buffer;
+    private int position;
+    private int limit;
+    private long consumed;
+
+    Blocks(int block, int end) {
+      this.block = block;
+      this.end = end;
+      this.consumed = recordsBefore[block];
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super GameView> action) {
+      while (position == limit) {
+        if (block == end) {
+          return false;
+        }
+        buffer = regions[blockRegion[block]];
+        position = blockOffset[block];
+        limit = position + blockBytes[block];
+        block++;
+      }
+      int length = 0;
+      for (int shift = 0; ; shift += 7) {
+        if (shift == 28 || position == limit) {
+          throw new IllegalStateException("The corpus holds a record of invalid length.");
+        }
+        int b = buffer.get(position++);
+        length |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      if (length == 0 || length > limit - position) {
+        throw new IllegalStateException("The corpus holds a record of invalid length.");
+      }
+      view.wrap(buffer, position, length);
+      position += length;
+      consumed++;
+      action.accept(view);
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super GameView> action) {
+      while (tryAdvance(action)) {
+        // scans every remaining record
+      }
+    }
+
+    /**
+     * The method splits off the first half of the remaining blocks. A spliterator that is in the
+     * middle of a block does not split, since the prefix must come before its current record.
+     */
+
+    @Override
+    public Spliterator<GameView> trySplit() {
+      int half = (end - block) >>> 1;
+      if (half == 0 || position != limit) {
+        return null;
+      }
+      Blocks prefix = new Blocks(block, block + half);
+      block += half;
+      consumed = recordsBefore[block];
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return recordsBefore[end] - consumed;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+    }
+  }
+}
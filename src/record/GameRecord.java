@@ -0,0 +1,362 @@
+package record;
+
+import card.Card;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The class records one complete game: the deal, the bidding and every turn of the card play, so
+ * that the game can be replayed. A record can be reused for many games, which lets a reader decode
+ * a whole corpus into one record without allocating.
+ * Seats are numbered 0, 1 and 2. The deal holds the hands as they were dealt, before the landlord
+ * takes the landlord cards. Moves are the bit masks of the cards played in each turn, starting with
+ * the landlord, with PASS for a pass.
+ *
+ * The binary form of a record is compact, about 45 bytes for a typical game:
+ * <ul>
+ *   <li>1 byte of flags. If FLAG_SEED is set, the seed of the game follows as 8 bytes.</li>
+ *   <li>The deal in 14 bytes: 2 bits per card in the order of the card ordinals, holding the seat
+ *   of the card, or 3 for a landlord card.</li>
+ *   <li>The bidding in 1 byte: the first bidder in the low 2 bits, then the bids in turn, 2 bits
+ *   each. Bidding ends after a bid of 3 or three bids. If every seat passed, the first bidder is
+ *   the landlord with a bid of 1.</li>
+ *   <li>The moves as a stream of bits, padded to a whole byte. A seat that follows writes a 0 bit
+ *   for a pass, or a 1 bit for a play. A play is then written as one bit per card of the current
+ *   hand of the seat, in ascending order, set if the card is played. The game ends when a hand runs
+ *   out of cards, so the number of moves is not stored.</li>
+ * </ul>
+ */
+
+public final class GameRecord {
+
+  public static final long PASS = 0L;
+  public static final int SEATS = 3;
+  public static final int FLAG_SEED = 1;
+
+  /**
+   * The largest size of an encoded record. A game has at most 54 plays and 108 passes, and every
+   * play writes at most 21 bits.
+   */
+
+  public static final int MAX_ENCODED_SIZE = 1 + 8 + 14 + 1 + (54 * 21 + 108 + 7) / 8;
+
+  private static final int KITTY = 3;
+
+  private final long[] deal = new long[SEATS + 1];
+  private final int[] bids = new int[SEATS];
+  private int bidCount;
+  private int firstBidder;
+  private boolean seeded;
+  private long seed;
+  private long[] moves = new long[64];
+  private int moveCount;
+  private final long[] hands = new long[SEATS];
+  private long bits;
+  private int bitCount;
+  private GameView view;
+
+  /**
+   * The method clears the record for a new game.
+   */
+
+  public void reset() {
+    Arrays.fill(deal, 0L);
+    bidCount = 0;
+    firstBidder = 0;
+    seeded = false;
+    seed = 0L;
+    moveCount = 0;
+  }
+
+  /**
+   * The method sets the deal of the game.
+   * @param hands The bit masks of the three hands and of the landlord cards.
+   */
+
+  public void setDeal(long[] hands) {
+    long all = 0L;
+    for (int i = 0; i <= SEATS; i++) {
+      if ((all & hands[i]) != 0L) {
+        throw new IllegalArgumentException("The hands of a deal must not overlap!");
+      }
+      all |= hands[i];
+    }
+    if (all != (1L << Card.COUNT) - 1) {
+      throw new IllegalArgumentException("A deal must hold every card!");
+    }
+    System.arraycopy(hands, 0, deal, 0, SEATS + 1);
+  }
+
+  public void setSeed(long seed) {
+    this.seeded = true;
+    this.seed = seed;
+  }
+
+  public void setFirstBidder(int seat) {
+    firstBidder = seat;
+  }
+
+  /**
+   * The method adds the next bid of the bidding.
+   * @param bid 0 for a pass, or a bid from 1 to 3.
+   */
+
+  public void addBid(int bid) {
+    if (bidCount == SEATS) {
+      throw new IllegalStateException("Every seat has bid already.");
+    }
+    bids[bidCount++] = bid;
+  }
+
+  /**
+   * The method adds the next turn of the card play.
+   * @param move The bit mask of the cards played, or PASS.
+   */
+
+  public void addMove(long move) {
+    if (moveCount == moves.length) {
+      moves = Arrays.copyOf(moves, moveCount * 2);
+    }
+    moves[moveCount++] = move;
+  }
+
+  /**
+   * Get a hand as it was dealt.
+   * @param seat The seat, or 3 for the landlord cards.
+   * @return The bit mask of the hand.
+   */
+
+  public long getDeal(int seat) {
+    return deal[seat];
+  }
+
+  public boolean isSeeded() {
+    return seeded;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public int getFirstBidder() {
+    return firstBidder;
+  }
+
+  public int getBidCount() {
+    return bidCount;
+  }
+
+  public int getBid(int index) {
+    return bids[index];
+  }
+
+  /**
+   * Get the landlord, which is the last seat that bid anything but a pass, or the first bidder if
+   * every seat passed.
+   * @return The seat of the landlord.
+   */
+
+  public int getLandlord() {
+    int landlord = firstBidder;
+    for (int i = 0; i < bidCount; i++) {
+      if (bids[i] != 0) {
+        landlord = (firstBidder + i) % SEATS;
+      }
+    }
+    return landlord;
+  }
+
+  /**
+   * Get the final bid, 1 if every seat passed.
+   * @return The bid.
+   */
+
+  public int getFinalBid() {
+    int bid = 1;
+    for (int i = 0; i < bidCount; i++) {
+      bid = Math.max(bid, bids[i]);
+    }
+    return bid;
+  }
+
+  public int getMoveCount() {
+    return moveCount;
+  }
+
+  public long getMove(int index) {
+    return moves[index];
+  }
+
+  /**
+   * Get the seat that made a move. The landlord makes the first move.
+   * @param index The index of the move.
+   * @return The seat.
+   */
+
+  public int getSeat(int index) {
+    return (getLandlord() + index) % SEATS;
+  }
+
+  /**
+   * Get the seat that ran out of cards.
+   * @return The winning seat, or -1 if the record has no moves.
+   */
+
+  public int getWinner() {
+    return moveCount == 0 ? -1 : getSeat(moveCount - 1);
+  }
+
+  /**
+   * The method makes an independent copy of this record, sized to its moves.
+   * @return The copy.
+   */
+
+  public GameRecord copy() {
+    GameRecord copy = new GameRecord();
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  /**
+   * The method overwrites this record with another one.
+   * @param other The record to copy.
+   */
+
+  public void copyFrom(GameRecord other) {
+    System.arraycopy(other.deal, 0, deal, 0, SEATS + 1);
+    System.arraycopy(other.bids, 0, bids, 0, SEATS);
+    bidCount = other.bidCount;
+    firstBidder = other.firstBidder;
+    seeded = other.seeded;
+    seed = other.seed;
+    if (moves.length < other.moveCount) {
+      moves = new long[other.moveCount];
+    }
+    System.arraycopy(other.moves, 0, moves, 0, other.moveCount);
+    moveCount = other.moveCount;
+  }
+
+  /**
+   * The method writes the binary form of this record.
+   * @param out The buffer to write to, with at least MAX_ENCODED_SIZE bytes remaining.
+   * @throws IllegalStateException If a move is not possible in the game, or the moves do not end
+   *                               the game, so it cannot be encoded.
+   */
+
+  public void encode(ByteBuffer out) {
+    out.put((byte) (seeded ? FLAG_SEED : 0));
+    if (seeded) {
+      out.putLong(seed);
+    }
+    long low = 0L;
+    long high = 0L;
+    for (int kind = 0; kind <= SEATS; kind++) {
+      for (long cards = deal[kind]; cards != 0L; cards &= cards - 1) {
+        int shift = Long.numberOfTrailingZeros(cards) << 1;
+        if (shift < 64) {
+          low |= (long) kind << shift;
+        } else {
+          high |= (long) kind << (shift - 64);
+        }
+      }
+    }
+    out.putLong(low);
+    out.putShort((short) high);
+    out.putInt((int) (high >>> 16));
+    int bidding = firstBidder;
+    for (int i = 0; i < bidCount; i++) {
+      bidding |= bids[i] << (2 + 2 * i);
+    }
+    out.put((byte) bidding);
+
+    int landlord = startHands();
+    bits = 0L;
+    bitCount = 0;
+    int lastSeat = -1;
+    for (int i = 0; i < moveCount; i++) {
+      int seat = (landlord + i) % SEATS;
+      long move = moves[i];
+      if (lastSeat >= 0 && lastSeat != seat) {
+        writeBits(out, move == PASS ? 0L : 1L, 1);
+      } else if (move == PASS) {
+        throw new IllegalStateException("Seat " + seat + " cannot pass when it leads.");
+      }
+      if (move != PASS) {
+        if ((hands[seat] & move) != move) {
+          throw new IllegalStateException("Seat " + seat + " plays cards it does not hold.");
+        }
+        long played = 0L;
+        int bit = 0;
+        for (long cards = hands[seat]; cards != 0L; cards &= cards - 1, bit++) {
+          if ((move & cards & -cards) != 0L) {
+            played |= 1L << bit;
+          }
+        }
+        writeBits(out, played, bit);
+        hands[seat] &= ~move;
+        lastSeat = seat;
+        if (hands[seat] == 0L && i < moveCount - 1) {
+          throw new IllegalStateException("Seat " + seat + " runs out of cards before the last move.");
+        }
+      }
+    }
+    if (moveCount == 0 || moves[moveCount - 1] == PASS || hands[lastSeat] != 0L) {
+      throw new IllegalStateException("The last move does not empty the hand of its seat.");
+    }
+    if (bitCount > 0) {
+      out.put((byte) bits);
+    }
+    bits = 0L;
+    bitCount = 0;
+  }
+
+  /**
+   * The method reads the binary form of a record into this record, without allocating unless the
+   * game has more moves than any game before it.
+   * @param in The buffer to read from, in little endian order. Its position is moved past the
+   *           record.
+   * @throws IllegalArgumentException If the buffer does not hold a valid record.
+   */
+
+  public void decode(ByteBuffer in) {
+    if (view == null) {
+      view = new GameView();
+    }
+    view.wrap(in, in.position(), in.remaining());
+    reset();
+    if (view.isSeeded()) {
+      setSeed(view.getSeed());
+    }
+    for (int i = 0; i <= SEATS; i++) {
+      deal[i] = view.getDeal(i);
+    }
+    firstBidder = view.getFirstBidder();
+    for (int i = 0; i < view.getBidCount(); i++) {
+      bids[bidCount++] = view.getBid(i);
+    }
+    while (view.next()) {
+      addMove(view.getMove());
+    }
+    in.position(view.getPosition());
+  }
+
+  private int startHands() {
+    System.arraycopy(deal, 0, hands, 0, SEATS);
+    int landlord = getLandlord();
+    hands[landlord] |= deal[KITTY];
+    return landlord;
+  }
+
+  /**
+   * The method appends the low bits of a value to the bit stream, and writes every whole byte.
+   */
+
+  private void writeBits(ByteBuffer out, long value, int count) {
+    bits |= value << bitCount;
+    for (bitCount += count; bitCount >= 8; bitCount -= 8) {
+      out.put((byte) bits);
+      bits >>>= 8;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The class reads the game records of a file written by GameRecordWriter, one block at a time.
+ * Each block is read into a reusable buffer with a single read, and its records are decoded into
+ * a record given by the caller, so reading a file does not allocate per record.
+ * A GameRecordReader is not thread safe.
+ */
+
+public final class GameRecordReader implements Closeable {
+
+  private final FileChannel channel;
+  private final ByteBuffer header =
+          ByteBuffer.allocate(GameRecordWriter.BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private final ByteBuffer block;
+  private int remaining;
+
+  /**
+   * Create a reader of a file.
+   * @param path The path of the file.
+   * @return The reader.
+   * @throws IOException If the file cannot be opened or does not start with a valid header.
+   */
+
+  public static GameRecordReader open(Path path) throws IOException {
+    return new GameRecordReader(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  /**
+   * Create a reader of a channel, starting at its current position.
+   * @param channel The channel, which is closed with the reader.
+   * @throws IOException If the channel does not start with a valid header.
+   */
+
+  public GameRecordReader(FileChannel channel) throws IOException {
+    this.channel = channel;
+    ByteBuffer fileHeader =
+            ByteBuffer.allocate(GameRecordWriter.FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    if (!readFully(fileHeader)) {
+      throw new IOException("The file has no record header.");
+    }
+    fileHeader.flip();
+    if (fileHeader.getInt() != GameRecordWriter.MAGIC
+            || fileHeader.getShort() != GameRecordWriter.VERSION) {
+      throw new IOException("The file is not a record file of a known version.");
+    }
+    fileHeader.getShort();
+    int blockSize = fileHeader.getInt();
+    if (blockSize <= GameRecordWriter.BLOCK_HEADER_SIZE) {
+      throw new IOException("The file has an invalid block size.");
+    }
+    this.block = ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+    this.block.limit(0);
+  }
+
+  /**
+   * The method reads the next record.
+   * @param record Receives the record.
+   * @return True if a record was read, false at the end of the file.
+   * @throws IOException If the file cannot be read or holds an invalid record.
+   */
+
+  public boolean read(GameRecord record) throws IOException {
+    while (remaining == 0) {
+      if (!nextBlock()) {
+        return false;
+      }
+    }
+    int length = readLength(block);
+    int end = block.position() + length;
+    if (length <= 0 || end > block.limit()) {
+      throw new IOException("The file holds a record of invalid length.");
+    }
+    int limit = block.limit();
+    block.limit(end);
+    try {
+      record.decode(block);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("The file holds an invalid record.", e);
+    } finally {
+      block.limit(limit);
+      block.position(end);
+    }
+    remaining--;
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * The method reads the length prefix of a record.
+   * @param buffer The buffer, positioned at the prefix.
+   * @return The length of the record.
+   */
+
+  static int readLength(ByteBuffer buffer) {
+    int length = 0;
+    for (int shift = 0; shift < 28; shift += 7) {
+      int b = buffer.get();
+      length |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return length;
+      }
+    }
+    return -1;
+  }
+
+  private boolean nextBlock() throws IOException {
+    header.clear();
+    if (!readFully(header)) {
+      return false;
+    }
+    header.flip();
+    int bytes = header.getInt();
+    int count = header.getInt();
+    if (bytes < 0 || bytes > block.capacity() - GameRecordWriter.BLOCK_HEADER_SIZE || count < 0) {
+      throw new IOException("The file holds a block of invalid size.");
+    }
+    block.clear();
+    block.limit(bytes);
+    if (!readFully(block)) {
+      throw new IOException("The file ends in the middle of a block.");
+    }
+    block.flip();
+    remaining = count;
+    return true;
+  }
+
+  /**
+   * The method fills a buffer from the channel.
+   * @return True if the buffer was filled, false if the channel ended before the first byte.
+   * @throws IOException If the channel ended after the first byte.
+   */
+
+  private boolean readFully(ByteBuffer buffer) throws IOException {
+    int start = buffer.position();
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        if (buffer.position() == start) {
+          return false;
+        }
+        throw new IOException("The file is truncated.");
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,141 @@
+package record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The class writes game records to a file, one block at a time.
+ * A record file starts with a header of 12 bytes: the magic number, the format version and the
+ * block size. Blocks follow, each with a header of 8 bytes, the number of payload bytes and the
+ * number of records, and a payload of records. Each record is prefixed with its length as a
+ * variable length integer, 7 bits per byte. A record never spans two blocks, so blocks can be read
+ * and scanned independently of each other. Every number is little endian.
+ * Records are encoded into a block buffer, and the block is written to the channel once the next
+ * record may not fit in it, so the channel sees large sequential writes only.
+ * A GameRecordWriter is not thread safe.
+ */
+
+public final class GameRecordWriter implements Closeable {
+
+  public static final int MAGIC = 0x524C5446;
+  public static final short VERSION = 1;
+  public static final int FILE_HEADER_SIZE = 12;
+  public static final int BLOCK_HEADER_SIZE = 8;
+  public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer block;
+  private final ByteBuffer scratch;
+  private int records;
+  private long written;
+  private long blocks;
+
+  /**
+   * Create a writer that writes to a new file, or replaces an existing one.
+   * @param path The path of the file.
+   * @return The writer.
+   * @throws IOException If the file cannot be opened or the header cannot be written.
+   */
+
+  public static GameRecordWriter open(Path path) throws IOException {
+    return new GameRecordWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Create a writer that writes to a channel, starting at its current position.
+   * @param channel The channel, which is closed with the writer.
+   * @param blockSize The size of a block in bytes, header included.
+   * @throws IOException If the header cannot be written.
+   */
+
+  public GameRecordWriter(FileChannel channel, int blockSize) throws IOException {
+    if (blockSize < BLOCK_HEADER_SIZE + 3 + GameRecord.MAX_ENCODED_SIZE) {
+      throw new IllegalArgumentException("A block must hold at least one record!");
+    }
+    this.channel = channel;
+    this.block = ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+    this.scratch = ByteBuffer.allocate(GameRecord.MAX_ENCODED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(blockSize).flip();
+    writeFully(header);
+    block.position(BLOCK_HEADER_SIZE);
+  }
+
+  /**
+   * The method appends a record.
+   * @param record The record.
+   * @throws IOException If a full block cannot be written.
+   */
+
+  public void write(GameRecord record) throws IOException {
+    scratch.clear();
+    record.encode(scratch);
+    scratch.flip();
+    int length = scratch.remaining();
+    if (block.remaining() < 3 + length) {
+      flush();
+    }
+    for (int v = length; ; v >>>= 7) {
+      if (v < 0x80) {
+        block.put((byte) v);
+        break;
+      }
+      block.put((byte) (v | 0x80));
+    }
+    block.put(scratch);
+    records++;
+  }
+
+  /**
+   * The method writes the current block, if it holds any record.
+   * @throws IOException If the block cannot be written.
+   */
+
+  public void flush() throws IOException {
+    if (records == 0) {
+      return;
+    }
+    block.putInt(0, block.position() - BLOCK_HEADER_SIZE);
+    block.putInt(4, records);
+    block.flip();
+    writeFully(block);
+    block.clear();
+    block.position(BLOCK_HEADER_SIZE);
+    records = 0;
+    blocks++;
+  }
+
+  /**
+   * Get the number of bytes written to the channel so far, file header included.
+   * @return The number of bytes.
+   */
+
+  public long getBytesWritten() {
+    return written;
+  }
+
+  public long getBlocksWritten() {
+    return blocks;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      written += channel.write(buffer);
+    }
+  }
+}
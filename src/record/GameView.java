@@ -0,0 +1,319 @@
+package record;
+
+import card.Card;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The class reads an encoded game record in place, without copying its bytes. It is a flyweight:
+ * wrap() points it at a record in a buffer and parses the header, that is the seed, the deal and
+ * the bidding, and the moves are then decoded one at a time by a cursor, so a scan over many
+ * records allocates nothing. The binary form is described by GameRecord.
+ * The view only uses absolute reads, so many views can read the same buffer at the same time.
+ * A GameView is not thread safe, and it is only valid until it wraps the next record.
+ */
+
+public final class GameView {
+
+  private static final int SEATS = GameRecord.SEATS;
+  private static final int KITTY = 3;
+  private static final int HEADER_SIZE = 1 + 14 + 1;
+
+  private final long[] deal = new long[SEATS + 1];
+  private final int[] bids = new int[SEATS];
+  private final long[] hands = new long[SEATS];
+  private ByteBuffer buffer;
+  private int start;
+  private int end;
+  private int movesStart;
+  private boolean seeded;
+  private long seed;
+  private int firstBidder;
+  private int bidCount;
+  private int landlord;
+
+  private int position;
+  private long bits;
+  private int bitCount;
+  private int seat;
+  private int lastSeat;
+  private int moveIndex;
+  private long move;
+  private boolean over;
+
+  /**
+   * The method points the view at a record and reads its header.
+   * @param buffer The buffer that holds the record, in little endian order.
+   * @param offset The index of the first byte of the record.
+   * @param length The number of bytes of the record.
+   * @return This view.
+   * @throws IllegalArgumentException If the header of the record is not valid.
+   */
+
+  public GameView wrap(ByteBuffer buffer, int offset, int length) {
+    this.buffer = buffer;
+    this.start = offset;
+    this.end = offset + length;
+    if (length < HEADER_SIZE) {
+      throw new IllegalArgumentException("The record is truncated!");
+    }
+    int at = offset;
+    seeded = (buffer.get(at++) & GameRecord.FLAG_SEED) != 0;
+    if (seeded) {
+      if (length < HEADER_SIZE + 8) {
+        throw new IllegalArgumentException("The record is truncated!");
+      }
+      seed = buffer.getLong(at);
+      at += 8;
+    } else {
+      seed = 0L;
+    }
+    long low = buffer.getLong(at);
+    long high = (buffer.getShort(at + 8) & 0xFFFFL) | (buffer.getInt(at + 10) & 0xFFFF_FFFFL) << 16;
+    at += 14;
+    long lowSeat = low >>> 1;
+    long highSeat = high >>> 1;
+    deal[0] = evenBits(~low & ~lowSeat) | evenBits(~high & ~highSeat) << 32;
+    deal[1] = evenBits(low & ~lowSeat) | evenBits(high & ~highSeat) << 32;
+    deal[2] = evenBits(~low & lowSeat) | evenBits(~high & highSeat) << 32;
+    deal[KITTY] = evenBits(low & lowSeat) | evenBits(high & highSeat) << 32;
+    deal[0] &= (1L << Card.COUNT) - 1;
+    if (Long.bitCount(deal[KITTY]) != 3) {
+      throw new IllegalArgumentException("The record has no valid deal!");
+    }
+    int bidding = buffer.get(at++) & 0xFF;
+    firstBidder = bidding & 3;
+    if (firstBidder == KITTY) {
+      throw new IllegalArgumentException("The record has no valid first bidder!");
+    }
+    bidCount = 0;
+    landlord = firstBidder;
+    for (int i = 0; i < SEATS; i++) {
+      int bid = (bidding >>> (2 + 2 * i)) & 3;
+      bids[bidCount++] = bid;
+      if (bid != 0) {
+        landlord = (firstBidder + i) % SEATS;
+      }
+      if (bid == 3) {
+        break;
+      }
+    }
+    movesStart = at;
+    rewind();
+    return this;
+  }
+
+  public boolean isSeeded() {
+    return seeded;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Get a hand as it was dealt.
+   * @param seat The seat, or 3 for the landlord cards.
+   * @return The bit mask of the hand.
+   */
+
+  public long getDeal(int seat) {
+    return deal[seat];
+  }
+
+  public int getFirstBidder() {
+    return firstBidder;
+  }
+
+  public int getBidCount() {
+    return bidCount;
+  }
+
+  public int getBid(int index) {
+    return bids[index];
+  }
+
+  /**
+   * Get the landlord, which is the last seat that bid anything but a pass, or the first bidder if
+   * every seat passed.
+   * @return The seat of the landlord.
+   */
+
+  public int getLandlord() {
+    return landlord;
+  }
+
+  /**
+   * Get the final bid, 1 if every seat passed.
+   * @return The bid.
+   */
+
+  public int getFinalBid() {
+    int bid = 1;
+    for (int i = 0; i < bidCount; i++) {
+      bid = Math.max(bid, bids[i]);
+    }
+    return bid;
+  }
+
+  /**
+   * The method moves the cursor back before the first move.
+   */
+
+  public void rewind() {
+    System.arraycopy(deal, 0, hands, 0, SEATS);
+    hands[landlord] |= deal[KITTY];
+    position = movesStart;
+    bits = 0L;
+    bitCount = 0;
+    seat = -1;
+    lastSeat = -1;
+    moveIndex = -1;
+    move = GameRecord.PASS;
+    over = false;
+  }
+
+  /**
+   * The method moves the cursor to the next move.
+   * @return True if there is a next move, false if the game is over.
+   * @throws IllegalArgumentException If the moves of the record are not valid.
+   */
+
+  public boolean next() {
+    if (over) {
+      return false;
+    }
+    seat = seat < 0 ? landlord : (seat + 1) % SEATS;
+    moveIndex++;
+    if (lastSeat >= 0 && lastSeat != seat && readBits(1) == 0L) {
+      move = GameRecord.PASS;
+      return true;
+    }
+    long hand = hands[seat];
+    long played = readBits(Long.bitCount(hand));
+    long cards = 0L;
+    for (; played != 0L; hand &= hand - 1, played >>>= 1) {
+      if ((played & 1L) != 0L) {
+        cards |= hand & -hand;
+      }
+    }
+    if (cards == 0L) {
+      throw new IllegalArgumentException("The record has an empty play!");
+    }
+    move = cards;
+    hands[seat] &= ~cards;
+    lastSeat = seat;
+    over = hands[seat] == 0L;
+    return true;
+  }
+
+  /**
+   * Get the index of the current move, counted from 0.
+   * @return The index, or -1 before the first move.
+   */
+
+  public int getMoveIndex() {
+    return moveIndex;
+  }
+
+  /**
+   * Get the seat of the current move.
+   * @return The seat, or -1 before the first move.
+   */
+
+  public int getSeat() {
+    return seat;
+  }
+
+  /**
+   * Get the current move.
+   * @return The bit mask of the cards played, or PASS.
+   */
+
+  public long getMove() {
+    return move;
+  }
+
+  /**
+   * Get a hand as it is after the current move.
+   * @param seat The seat.
+   * @return The bit mask of the hand.
+   */
+
+  public long getHand(int seat) {
+    return hands[seat];
+  }
+
+  /**
+   * Get the seat that ran out of cards. This runs the cursor to the end of the game.
+   * @return The winning seat.
+   * @throws IllegalArgumentException If the moves of the record are not valid.
+   */
+
+  public int getWinner() {
+    while (next()) {
+      // runs to the last move
+    }
+    return lastSeat;
+  }
+
+  public boolean isOver() {
+    return over;
+  }
+
+  /**
+   * Get the index after the last byte the cursor has read. Once the game is over, that is the
+   * index after the record.
+   * @return The index.
+   */
+
+  public int getPosition() {
+    return position;
+  }
+
+  /**
+   * Get the index after the last byte of the wrapped record.
+   * @return The index.
+   */
+
+  public int getEnd() {
+    return end;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * The method gathers the bits at the even positions of a long into its low 32 bits, so that the
+   * 2-bit fields of 32 cards turn into a bit mask of 32 cards.
+   */
+
+  private static long evenBits(long x) {
+    x &= 0x5555_5555_5555_5555L;
+    x = (x | x >>> 1) & 0x3333_3333_3333_3333L;
+    x = (x | x >>> 2) & 0x0F0F_0F0F_0F0F_0F0FL;
+    x = (x | x >>> 4) & 0x00FF_00FF_00FF_00FFL;
+    x = (x | x >>> 8) & 0x0000_FFFF_0000_FFFFL;
+    return (x | x >>> 16) & 0x0000_0000_FFFF_FFFFL;
+  }
+
+  /**
+   * The method takes the next bits of the move stream. It reads only the bytes it needs, so it
+   * never reads past the padding of the record. A play takes at most 20 bits.
+   */
+
+  private long readBits(int count) {
+    while (bitCount < count) {
+      if (position == end) {
+        throw new IllegalArgumentException("The record is truncated!");
+      }
+      bits |= (long) (buffer.get(position++) & 0xFF) << bitCount;
+      bitCount += 8;
+    }
+    long value = bits & ((1L << count) - 1);
+    bits >>>= count;
+    bitCount -= count;
+    return value;
+  }
+}
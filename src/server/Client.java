@@ -0,0 +1,58 @@
+package server;
+
+import card.CardSet;
+
+/**
+ * The interface defines how a table talks to the client of a seat. It is the in-memory transport
+ * of the server: a table calls these methods on its own thread, and the client answers by calling
+ * Table.bid() or Table.play() with the turn it was given, from any thread.
+ * Calls must return quickly and must not block, since they hold up the table. A client that
+ * needs time to decide shall hand the decision to a thread of its own.
+ */
+
+public interface Client {
+
+  /**
+   * The method asks a seat to bid.
+   * @param table The table.
+   * @param seat The seat to bid.
+   * @param turn The turn, to be passed back with the bid.
+   * @param hand The hand of the seat.
+   * @param bid The highest bid so far, 0 if there is none.
+   */
+
+  void bid(Table table, int seat, long turn, CardSet hand, int bid);
+
+  /**
+   * The method asks a seat to play.
+   * @param table The table.
+   * @param seat The seat to play.
+   * @param turn The turn, to be passed back with the play.
+   * @param hand The hand of the seat.
+   * @param last The play to beat, or null if the seat leads.
+   * @param partner True if the play to beat was made by the partner of the seat.
+   */
+
+  void play(Table table, int seat, long turn, CardSet hand, CardSet last, boolean partner);
+
+  /**
+   * The method tells a seat that its bid or play was rejected. The seat keeps its turn until it
+   * times out.
+   * @param table The table.
+   * @param seat The seat.
+   * @param turn The turn.
+   * @param reason Why the bid or play was rejected.
+   */
+
+  void rejected(Table table, int seat, long turn, String reason);
+
+  /**
+   * The method tells a seat that a game is over.
+   * @param table The table.
+   * @param seat The seat.
+   * @param winner The seat that ran out of cards.
+   * @param landlord The landlord of the game.
+   */
+
+  void finished(Table table, int seat, int winner, int landlord);
+}
@@ -0,0 +1,242 @@
+package server;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The class logs the events of a table in a ring buffer with a single writer, the table, and any
+ * number of readers. An event is two longs in a primitive array, so appending one allocates
+ * nothing, takes no lock and never waits for a reader: the writer overwrites the oldest event
+ * once the ring is full. A reader that falls a whole ring behind, a slow spectator, misses events,
+ * and rejoins the current game instead, so overload conflates the events of a spectator into the
+ * state of the current game and never slows down the table.
+ * Every event has a sequence number, and the cursor is the number of the next event. A reader
+ * checks the cursor after it copied an event, like a seqlock, and drops the event if the writer may
+ * have overwritten it meanwhile.
+ * Every game starts with the four DEAL events, of seats 0 to 2 and of the landlord cards, and the
+ * log remembers where the current game started. The ring is larger than the longest game, so a
+ * late joiner can always catch up by reading the current game from its start: the start is the
+ * snapshot and the events after it are the tail.
+ * A log is written by its table only. Readers are not thread safe, use one per thread.
+ */
+
+public final class EventLog {
+
+  /**
+   * A hand was dealt. The seat is 0 to 2, or 3 for the landlord cards, and the cards are its mask.
+   */
+
+  public static final int DEAL = 0;
+
+  /**
+   * A seat bid. The value is the bid, 0 for a pass.
+   */
+
+  public static final int BID = 1;
+
+  /**
+   * The seat became the landlord. The value is the bid, the cards are the landlord cards.
+   */
+
+  public static final int LANDLORD = 2;
+
+  /**
+   * The seat played the cards. The value is the CardsType ordinal shifted left by 4 bits, or'ed
+   * with the Rank ordinal of the prime card.
+   */
+
+  public static final int PLAY = 3;
+
+  public static final int PASS = 4;
+
+  /**
+   * The seat ran out of cards and won. The value is the landlord.
+   */
+
+  public static final int FINISH = 5;
+
+  /**
+   * The smallest capacity, which is larger than the number of events of the longest game: 4 deals,
+   * 3 bids, the landlord, at most 54 plays with 2 passes each, and the finish.
+   */
+
+  public static final int MIN_CAPACITY = 256;
+
+  private static final VarHandle CURSOR;
+
+  static {
+    try {
+      CURSOR = MethodHandles.lookup().findVarHandle(EventLog.class, "cursor", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final long[] slots;
+  private final int mask;
+  private volatile long cursor;
+  private volatile long gameStart;
+
+  /**
+   * Create a log.
+   * @param capacity The number of events of the ring, a power of two of at least MIN_CAPACITY.
+   */
+
+  public EventLog(int capacity) {
+    if (capacity < MIN_CAPACITY || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("The capacity must be a power of two of at least "
+              + MIN_CAPACITY + "!");
+    }
+    this.slots = new long[capacity * 2];
+    this.mask = capacity - 1;
+  }
+
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Get the sequence number of the next event.
+   * @return The cursor.
+   */
+
+  public long getCursor() {
+    return (long) CURSOR.getAcquire(this);
+  }
+
+  /**
+   * Get the sequence number of the first event of the current game.
+   * @return The sequence number.
+   */
+
+  public long getGameStart() {
+    return gameStart;
+  }
+
+  /**
+   * The method creates a reader that joins the current game.
+   * @return The reader.
+   */
+
+  public Reader reader() {
+    return new Reader();
+  }
+
+  /**
+   * The method marks the next event as the start of a new game. Called by the writer only.
+   */
+
+  void startGame() {
+    gameStart = (long) CURSOR.getOpaque(this);
+  }
+
+  /**
+   * The method appends an event. Called by the writer only. The fence keeps the writes to the slot
+   * after the publication of the previous cursor, which is what a reader checks.
+   */
+
+  void append(int kind, int seat, int value, long cards) {
+    long sequence = (long) CURSOR.getOpaque(this);
+    VarHandle.storeStoreFence();
+    int slot = (int) (sequence & mask) << 1;
+    slots[slot] = (long) value << 16 | seat << 8 | kind;
+    slots[slot + 1] = cards;
+    CURSOR.setRelease(this, sequence + 1);
+  }
+
+  /**
+   * The interface receives the events of a reader.
+   */
+
+  public interface Listener {
+
+    /**
+     * The method receives an event.
+     * @param sequence The sequence number of the event.
+     * @param kind The kind of the event, DEAL to FINISH.
+     * @param seat The seat of the event.
+     * @param value The value of the event, which depends on its kind.
+     * @param cards The cards of the event, which depend on its kind.
+     */
+
+    void event(long sequence, int kind, int seat, int value, long cards);
+  }
+
+  /**
+   * The class reads the events of the log, starting at the start of the current game.
+   */
+
+  public final class Reader {
+    private long next;
+    private long dropped;
+    private long rejoins;
+
+    Reader() {
+      join();
+    }
+
+    /**
+     * The method moves the reader to the start of the current game, so that the next event it
+     * reads is the first DEAL of that game.
+     */
+
+    public void join() {
+      next = gameStart;
+    }
+
+    /**
+     * The method reads the next events, up to a maximum. A reader that was overrun rejoins the
+     * current game and goes on from its start.
+     * @param listener Receives the events.
+     * @param max The maximum number of events to read.
+     * @return The number of events read.
+     */
+
+    public int poll(Listener listener, int max) {
+      int count = 0;
+      while (count < max) {
+        long available = getCursor();
+        if (next == available) {
+          break;
+        }
+        int slot = (int) (next & mask) << 1;
+        long header = slots[slot];
+        long cards = slots[slot + 1];
+        VarHandle.loadLoadFence();
+        if (getCursor() - next > mask) {
+          long start = gameStart;
+          dropped += Math.max(0L, start - next);
+          rejoins++;
+          next = start;
+          continue;
+        }
+        listener.event(next++, (int) header & 0xFF, (int) (header >>> 8) & 0xFF,
+                (int) (header >>> 16), cards);
+        count++;
+      }
+      return count;
+    }
+
+    /**
+     * Get the sequence number of the next event to read.
+     * @return The sequence number.
+     */
+
+    public long getNext() {
+      return next;
+    }
+
+    /**
+     * Get the number of events that the reader skipped because it was overrun.
+     * @return The number of events.
+     */
+
+    public long getDropped() {
+      return dropped;
+    }
+
+    public long getRejoins() {
+      return rejoins;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package server;
+
+import card.CardSet;
+import game.GreedyStrategy;
+import game.HandEvaluator;
+import game.HistogramEvaluator;
+import metrics.Metrics;
+import metrics.TextSink;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The class drives a TableServer with many tables of bots on one JVM, and reports the throughput
+ * and the latency percentiles of the server. The bots think on a pool of client threads of their
+ * own, like remote clients would, and send their bids and plays back to their tables through the
+ * in-memory transport. Every bot plays like GreedyStrategy.
+ * Spectator threads can follow every table through its event log meanwhile, to show that readers
+ * do not slow the tables down. Each spectator thread visits all tables in turn, so with many tables
+ * it falls behind, and is overrun and rejoins.
+ */
+
+public final class LoadGenerator implements Client {
+
+  private final ExecutorService clients;
+  private final HandEvaluator evaluator = new HistogramEvaluator();
+  private final ThreadLocal<GreedyStrategy> strategies =
+          ThreadLocal.withInitial(GreedyStrategy::new);
+
+  public LoadGenerator(ExecutorService clients) {
+    this.clients = clients;
+  }
+
+  @Override
+  public void bid(Table table, int seat, long turn, CardSet hand, int bid) {
+    clients.execute(() -> {
+      int value = evaluator.bid(hand.rankSignature());
+      table.bid(seat, turn, value > bid ? value : 0);
+    });
+  }
+
+  @Override
+  public void play(Table table, int seat, long turn, CardSet hand, CardSet last, boolean partner) {
+    clients.execute(() -> {
+      long move = strategies.get().choose(hand.mask(), last == null ? 0L : last.mask(), partner);
+      table.play(seat, turn, move == 0L ? null : CardSet.of(move));
+    });
+  }
+
+  @Override
+  public void rejected(Table table, int seat, long turn, String reason) {
+    // a greedy bot only makes valid moves, its turn times out otherwise
+  }
+
+  @Override
+  public void finished(Table table, int seat, int winner, int landlord) {
+    // the server counts the games
+  }
+
+  /**
+   * Runs a load test and prints its results.
+   * @param args The number of tables, the number of games per table, the number of server threads,
+   *             the number of client threads, the turn timeout in milliseconds and the number of
+   *             spectator threads, all optional.
+   * @throws InterruptedException If the main thread is interrupted.
+   */
+
+  public static void main(String[] args) throws InterruptedException {
+    int tables = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int cores = Runtime.getRuntime().availableProcessors();
+    int serverThreads = args.length > 2 ? Integer.parseInt(args[2]) : cores;
+    int clientThreads = args.length > 3 ? Integer.parseInt(args[3]) : cores;
+    long timeout = args.length > 4 ? Long.parseLong(args[4]) : 1_000;
+    int spectators = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+
+    ForkJoinPool clientPool = new ForkJoinPool(clientThreads,
+            ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    LoadGenerator bots = new LoadGenerator(clientPool);
+    try (TableServer server = new TableServer(serverThreads, timeout, 16)) {
+      long start = System.nanoTime();
+      CompletableFuture<?>[] done = new CompletableFuture<?>[tables];
+      Table[] open = new Table[tables];
+      for (int i = 0; i < tables; i++) {
+        open[i] = server.open(bots, bots, bots, i, games);
+        done[i] = open[i].getDone();
+      }
+      CompletableFuture<Void> all = CompletableFuture.allOf(done);
+      Watch[] watches = new Watch[spectators];
+      Thread[] threads = new Thread[spectators];
+      for (int i = 0; i < spectators; i++) {
+        watches[i] = new Watch(open, all);
+        threads[i] = new Thread(watches[i], "spectator-" + i);
+        threads[i].start();
+      }
+      all.join();
+      double seconds = (System.nanoTime() - start) / 1e9;
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      long timeouts = 0;
+      long rejects = 0;
+      long stale = 0;
+      for (CompletableFuture<?> future : done) {
+        Table table = (Table) future.join();
+        timeouts += table.getTimeouts();
+        rejects += table.getRejects();
+        stale += table.getStale();
+      }
+      System.out.printf("%d tables, %d games in %.2f s (%.0f games/s, %.0f moves/s)%n", tables,
+              server.getGames(), seconds, server.getGames() / seconds,
+              server.getMoveLatency().getCount() / seconds);
+      System.out.println("move latency: " + server.getMoveLatency());
+      System.out.println("turn latency: " + server.getTurnLatency());
+      System.out.printf("%d timeouts, %d rejects, %d stale, %d overloads%n", timeouts, rejects,
+              stale, server.getOverloads());
+      for (Watch watch : watches) {
+        System.out.println(watch);
+      }
+      if (Metrics.isEnabled()) {
+        Metrics.getInstance().report(new TextSink(System.out));
+      }
+    } finally {
+      clientPool.shutdownNow();
+    }
+  }
+
+  /**
+   * The class follows every table with a spectator until all tables are done, and checks that the
+   * winner of every game it saw end holds no cards.
+   */
+
+  private static final class Watch implements Runnable {
+    private static final long POLL_NANOS = 1_000_000L;
+
+    private final Spectator[] spectators;
+    private final CompletableFuture<Void> done;
+    private long inconsistent;
+
+    Watch(Table[] tables, CompletableFuture<Void> done) {
+      this.spectators = new Spectator[tables.length];
+      for (int i = 0; i < tables.length; i++) {
+        spectators[i] = new Spectator(tables[i].getLog());
+      }
+      this.done = done;
+    }
+
+    @Override
+    public void run() {
+      boolean last = false;
+      while (!last) {
+        last = done.isDone();
+        int read = 0;
+        for (Spectator spectator : spectators) {
+          for (int count; (count = spectator.poll(64)) > 0; read += count) {
+            if (spectator.getWinner() >= 0
+                    && !spectator.getHand(spectator.getWinner()).isEmpty()) {
+              inconsistent++;
+            }
+          }
+        }
+        if (read < spectators.length) {
+          LockSupport.parkNanos(POLL_NANOS);
+        }
+      }
+    }
+
+    @Override
+    public String toString() {
+      long events = 0;
+      long games = 0;
+      long dropped = 0;
+      long rejoins = 0;
+      for (Spectator spectator : spectators) {
+        events += spectator.getEvents();
+        games += spectator.getGames();
+        dropped += spectator.getDropped();
+        rejoins += spectator.getRejoins();
+      }
+      return String.format("spectator: %d events, %d game ends, %d dropped, %d rejoins, "
+              + "%d inconsistent", events, games, dropped, rejoins, inconsistent);
+    }
+  }
+}
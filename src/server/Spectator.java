@@ -0,0 +1,142 @@
+package server;
+
+import card.CardSet;
+
+/**
+ * The class follows a table through its event log and keeps the state of the current game: the
+ * hands, the landlord, the bid and the last play. It starts over whenever a new game is dealt, so a
+ * spectator that joins late, or was overrun and rejoined, catches up by reading the current game
+ * from its start.
+ * A Spectator is not thread safe.
+ */
+
+public final class Spectator implements EventLog.Listener {
+
+  private final EventLog.Reader reader;
+  private final long[] hands = new long[4];
+  private int landlord = -1;
+  private int bid;
+  private long lastPlay;
+  private int lastSeat = -1;
+  private int winner = -1;
+  private long games;
+  private long events;
+
+  /**
+   * Create a spectator that joins the current game of a table.
+   * @param log The event log of the table.
+   */
+
+  public Spectator(EventLog log) {
+    this.reader = log.reader();
+  }
+
+  /**
+   * The method reads the next events of the table.
+   * @param max The maximum number of events to read.
+   * @return The number of events read.
+   */
+
+  public int poll(int max) {
+    return reader.poll(this, max);
+  }
+
+  @Override
+  public void event(long sequence, int kind, int seat, int value, long cards) {
+    events++;
+    switch (kind) {
+      case EventLog.DEAL:
+        if (seat == 0) {
+          landlord = -1;
+          bid = 0;
+          lastPlay = 0L;
+          lastSeat = -1;
+          winner = -1;
+        }
+        hands[seat] = cards;
+        break;
+      case EventLog.LANDLORD:
+        landlord = seat;
+        bid = value;
+        hands[seat] |= cards;
+        break;
+      case EventLog.PLAY:
+        hands[seat] &= ~cards;
+        lastPlay = cards;
+        lastSeat = seat;
+        break;
+      case EventLog.FINISH:
+        winner = seat;
+        games++;
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Get the hand of a seat.
+   * @param seat The seat, or 3 for the landlord cards.
+   * @return The cards.
+   */
+
+  public CardSet getHand(int seat) {
+    return CardSet.of(hands[seat]);
+  }
+
+  /**
+   * Get the landlord.
+   * @return The seat of the landlord, or -1 during the bidding.
+   */
+
+  public int getLandlord() {
+    return landlord;
+  }
+
+  public int getBid() {
+    return bid;
+  }
+
+  /**
+   * Get the last play of the game.
+   * @return The cards of the last play, which are empty before the first play.
+   */
+
+  public CardSet getLastPlay() {
+    return CardSet.of(lastPlay);
+  }
+
+  public int getLastSeat() {
+    return lastSeat;
+  }
+
+  /**
+   * Get the winner of the game.
+   * @return The seat that ran out of cards, or -1 while the game goes on.
+   */
+
+  public int getWinner() {
+    return winner;
+  }
+
+  /**
+   * Get the number of game ends the spectator saw.
+   * @return The number of games.
+   */
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getEvents() {
+    return events;
+  }
+
+  public long getDropped() {
+    return reader.getDropped();
+  }
+
+  public long getRejoins() {
+    return reader.getRejoins();
+  }
+}
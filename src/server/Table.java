@@ -0,0 +1,366 @@
+package server;
+
+import card.CardSet;
+import card.Deck;
+import game.Bidding;
+import game.GameEngine;
+import game.PlayValidator;
+import game.PlayerImpl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class hosts a series of games between three clients as an actor. Bids and plays of the
+ * clients go into a bounded mailbox, and the table takes them out one at a time on a thread of its
+ * server, so the games of a table are single threaded without any lock, while thousands of tables
+ * share the few threads of the server. A table only runs while its mailbox holds work.
+ * The rules are those of GameEngine: the deck is shuffled by the seed of the table and the index
+ * of the game, the bidding runs through Bidding and the plays through PlayerImpl.validate(), so a
+ * client that sends invalid plays costs the table no exceptions.
+ * Every bid and play names the turn it answers, so an answer that comes after its turn timed out
+ * is ignored. A seat that times out passes, or plays its lowest card if it leads.
+ * Every deal, bid, play, pass and game end is appended to the event log of the table, which any
+ * number of spectators can follow without holding up the table.
+ * The methods of a table can be called from any thread.
+ */
+
+public final class Table {
+
+  private static final int BATCH = 64;
+  private static final int LOG_CAPACITY = 512;
+  private static final int IDLE = 0;
+  private static final int BIDDING = 1;
+  private static final int PLAYING = 2;
+  private static final int DONE = 3;
+
+  private final TableServer server;
+  private final int id;
+  private final Client[] clients;
+  private final long seed;
+  private final ArrayBlockingQueue<Command> mailbox;
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final CompletableFuture<Table> done = new CompletableFuture<>();
+  private volatile long expired = -1L;
+
+  private final EventLog log = new EventLog(LOG_CAPACITY);
+  private final Deck deck;
+  private final Bidding bidding = new Bidding();
+  private final PlayerImpl[] players = new PlayerImpl[3];
+  private final long[] dealt = new long[4];
+  private final int games;
+  private int played;
+  private int phase = IDLE;
+  private int redeals;
+  private int turn;
+  private long turnId;
+  private long turnStart;
+  private int landlord;
+  private PlayerImpl.Plays lastPlay;
+  private int lastSeat;
+  private ScheduledFuture<?> timeout;
+  private long timeouts;
+  private long rejects;
+  private long stale;
+
+  Table(TableServer server, int id, Client[] clients, long seed, int games, int capacity) {
+    this.server = server;
+    this.id = id;
+    this.clients = clients;
+    this.seed = seed;
+    this.games = games;
+    this.mailbox = new ArrayBlockingQueue<>(capacity);
+    this.deck = Deck.create(seed);
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * The method sends the bid of a seat.
+   * @param seat The seat.
+   * @param turn The turn that the bid answers.
+   * @param bid 0 to pass, or a bid from 1 to 3.
+   * @return False if the mailbox of the table is full, so the bid was dropped.
+   */
+
+  public boolean bid(int seat, long turn, int bid) {
+    return send(new Command(seat, turn, true, bid));
+  }
+
+  /**
+   * The method sends the play of a seat.
+   * @param seat The seat.
+   * @param turn The turn that the play answers.
+   * @param cards The cards to play, or null or an empty set to pass.
+   * @return False if the mailbox of the table is full, so the play was dropped.
+   */
+
+  public boolean play(int seat, long turn, CardSet cards) {
+    return send(new Command(seat, turn, false, cards == null ? 0L : cards.mask()));
+  }
+
+  public EventLog getLog() {
+    return log;
+  }
+
+  /**
+   * Get a future that completes once the table has played all of its games, or failed.
+   * @return The future.
+   */
+
+  public CompletableFuture<Table> getDone() {
+    return done;
+  }
+
+  /**
+   * Get the number of finished games. Read it once the table is done, or as an estimate.
+   * @return The number of games.
+   */
+
+  public int getGamesPlayed() {
+    return played;
+  }
+
+  public long getTimeouts() {
+    return timeouts;
+  }
+
+  public long getRejects() {
+    return rejects;
+  }
+
+  /**
+   * Get the number of bids and plays that came after their turn was over.
+   * @return The number of bids and plays.
+   */
+
+  public long getStale() {
+    return stale;
+  }
+
+  void start() {
+    schedule();
+  }
+
+  private boolean send(Command command) {
+    if (!mailbox.offer(command)) {
+      server.overloaded();
+      return false;
+    }
+    schedule();
+    return true;
+  }
+
+  private void schedule() {
+    if (scheduled.compareAndSet(false, true)) {
+      server.execute(this::drain);
+    }
+  }
+
+  /**
+   * The method handles the work of the table, up to BATCH commands, and hands the thread back to
+   * the server. If work is left, or arrives meanwhile, the table is scheduled again.
+   */
+
+  private void drain() {
+    try {
+      for (int i = 0; i < BATCH && phase != DONE; i++) {
+        if (phase == IDLE) {
+          deal();
+        } else if (expired == turnId) {
+          expired = -1L;
+          timeouts++;
+          timedOut();
+        } else {
+          Command command = mailbox.poll();
+          if (command == null) {
+            break;
+          }
+          handle(command);
+        }
+      }
+    } catch (RuntimeException e) {
+      phase = DONE;
+      cancelTimeout();
+      done.completeExceptionally(e);
+    } finally {
+      scheduled.set(false);
+      if (phase != DONE && (!mailbox.isEmpty() || expired == turnId || phase == IDLE)) {
+        schedule();
+      }
+    }
+  }
+
+  private void handle(Command command) {
+    if (command.seat != turn || command.turn != turnId) {
+      stale++;
+      return;
+    }
+    if (phase == BIDDING && command.bidding) {
+      if (!bidding.isAllowed((int) command.value)) {
+        reject("A bid must pass or beat " + bidding.getBid() + ".");
+        return;
+      }
+      server.getTurnLatency().record(System.nanoTime() - turnStart);
+      applyBid((int) command.value);
+    } else if (phase == PLAYING && !command.bidding) {
+      PlayValidator.Result result = players[turn].validate(lastPlay, command.value);
+      if (!result.isValid()) {
+        reject(result.getReason());
+        return;
+      }
+      PlayerImpl.Plays play = players[turn].play(result);
+      long now = System.nanoTime();
+      server.getMoveLatency().record(now - command.sent);
+      server.getTurnLatency().record(now - turnStart);
+      applyPlay(play);
+    } else {
+      stale++;
+    }
+  }
+
+  private void timedOut() {
+    if (phase == BIDDING) {
+      applyBid(Bidding.PASS);
+    } else {
+      CardSet hand = players[turn].getHandSet();
+      applyPlay(lastPlay == null
+              ? players[turn].playCards(null, CardSet.of(hand.mask() & -hand.mask())) : null);
+    }
+  }
+
+  private void reject(String reason) {
+    rejects++;
+    clients[turn].rejected(this, turn, turnId, reason);
+  }
+
+  private void deal() {
+    long dealSeed = seed + (played * (long) (GameEngine.MAX_REDEALS + 1) + redeals)
+            * 0x9E3779B97F4A7C15L;
+    deck.reset(dealSeed);
+    deck.dealCardForThreePlayer(dealt);
+    bidding.start((int) Long.remainderUnsigned(dealSeed, 3));
+    log.startGame();
+    for (int seat = 0; seat < 4; seat++) {
+      log.append(EventLog.DEAL, seat, 0, dealt[seat]);
+    }
+    phase = BIDDING;
+    askBid();
+  }
+
+  private void applyBid(int bid) {
+    bidding.bid(turn, bid);
+    log.append(EventLog.BID, turn, bid, 0L);
+    if (!bidding.isOver()) {
+      askBid();
+      return;
+    }
+    if (bidding.isRedeal() && redeals < GameEngine.MAX_REDEALS) {
+      redeals++;
+      phase = IDLE;
+      cancelTimeout();
+      return;
+    }
+    landlord = bidding.isRedeal() ? bidding.getFirst() : bidding.getLandlord();
+    log.append(EventLog.LANDLORD, landlord, bidding.isRedeal() ? 1 : bidding.getBid(), dealt[3]);
+    for (int seat = 0; seat < 3; seat++) {
+      players[seat] = new PlayerImpl(CardSet.of(seat == landlord ? dealt[seat] | dealt[3]
+              : dealt[seat]));
+    }
+    phase = PLAYING;
+    lastPlay = null;
+    lastSeat = -1;
+    turn = landlord;
+    askPlay();
+  }
+
+  private void applyPlay(PlayerImpl.Plays play) {
+    if (play == null) {
+      log.append(EventLog.PASS, turn, 0, 0L);
+    } else {
+      log.append(EventLog.PLAY, turn, play.getType().ordinal() << 4
+              | play.getPrimeCard().getRank().ordinal(), play.getCardSet().mask());
+      lastPlay = play;
+      lastSeat = turn;
+      if (players[turn].getHandSet().isEmpty()) {
+        finish();
+        return;
+      }
+    }
+    turn = (turn + 1) % 3;
+    askPlay();
+  }
+
+  private void finish() {
+    cancelTimeout();
+    played++;
+    redeals = 0;
+    phase = played == games ? DONE : IDLE;
+    log.append(EventLog.FINISH, turn, landlord, 0L);
+    server.finished();
+    for (int seat = 0; seat < 3; seat++) {
+      clients[seat].finished(this, seat, turn, landlord);
+    }
+    if (phase == DONE) {
+      done.complete(this);
+    }
+  }
+
+  private void askBid() {
+    turn = bidding.getTurn();
+    nextTurn();
+    clients[turn].bid(this, turn, turnId, CardSet.of(dealt[turn]), bidding.getBid());
+  }
+
+  private void askPlay() {
+    if (lastSeat == turn) {
+      lastPlay = null;
+      lastSeat = -1;
+    }
+    nextTurn();
+    boolean partner = lastPlay != null && turn != landlord && lastSeat != landlord;
+    clients[turn].play(this, turn, turnId, players[turn].getHandSet(),
+            lastPlay == null ? null : lastPlay.getCardSet(), partner);
+  }
+
+  private void nextTurn() {
+    turnId++;
+    turnStart = System.nanoTime();
+    cancelTimeout();
+    long id = turnId;
+    timeout = server.schedule(() -> {
+      expired = id;
+      schedule();
+    });
+  }
+
+  private void cancelTimeout() {
+    if (timeout != null) {
+      timeout.cancel(false);
+      timeout = null;
+    }
+  }
+
+  /**
+   * The class holds a bid or a play of a client.
+   */
+
+  private static final class Command {
+    private final int seat;
+    private final long turn;
+    private final boolean bidding;
+    private final long value;
+    private final long sent = System.nanoTime();
+
+    Command(int seat, long turn, boolean bidding, long value) {
+      this.seat = seat;
+      this.turn = turn;
+      this.bidding = bidding;
+      this.value = value;
+    }
+  }
+}
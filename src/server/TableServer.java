@@ -0,0 +1,134 @@
+package server;
+
+import metrics.LatencyHistogram;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class hosts many tables on a fixed number of threads. Tables are actors, see Table: a table
+ * is scheduled on the worker pool whenever its mailbox holds work, so ten thousands of tables need
+ * no more threads than the machine has cores. The pool is a ForkJoinPool in async mode, which runs
+ * the scheduled tables in FIFO order. Turn timeouts run on a single timer thread, which does
+ * nothing but mark the turn of a table as expired and schedule the table.
+ * The server measures the latency of every play, from the moment a client sends it to the moment
+ * the table has applied it, and of every turn, from the moment the seat was asked to the moment its
+ * answer was applied.
+ * A TableServer is thread safe.
+ */
+
+public final class TableServer implements AutoCloseable {
+
+  private final ForkJoinPool pool;
+  private final ScheduledThreadPoolExecutor timer;
+  private final long timeoutMillis;
+  private final int capacity;
+  private final AtomicInteger tables = new AtomicInteger();
+  private final LongAdder games = new LongAdder();
+  private final LongAdder overloads = new LongAdder();
+  private final LatencyHistogram moveLatency = new LatencyHistogram();
+  private final LatencyHistogram turnLatency = new LatencyHistogram();
+
+  /**
+   * Create a server.
+   * @param threads The number of worker threads.
+   * @param timeoutMillis How long a seat may take for a turn, or 0 for no timeout.
+   * @param capacity The capacity of the mailbox of each table.
+   */
+
+  public TableServer(int threads, long timeoutMillis, int capacity) {
+    if (threads <= 0 || timeoutMillis < 0 || capacity <= 0) {
+      throw new IllegalArgumentException("A server needs threads and mailboxes!");
+    }
+    this.pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null,
+            true);
+    this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "table-timer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.timer.setRemoveOnCancelPolicy(true);
+    this.timeoutMillis = timeoutMillis;
+    this.capacity = capacity;
+  }
+
+  /**
+   * The method opens a table and starts its first game.
+   * @param first The client of seat 0.
+   * @param second The client of seat 1.
+   * @param third The client of seat 2.
+   * @param seed The seed of the table, which decides the deals of its games.
+   * @param games The number of games to play.
+   * @return The table.
+   */
+
+  public Table open(Client first, Client second, Client third, long seed, int games) {
+    if (games <= 0) {
+      throw new IllegalArgumentException("A table must play at least one game!");
+    }
+    Table table = new Table(this, tables.getAndIncrement(), new Client[] {first, second, third},
+            seed, games, capacity);
+    table.start();
+    return table;
+  }
+
+  /**
+   * Get the latency of the plays, from the moment a client sent a play to the moment its table
+   * applied it, in nanoseconds.
+   * @return The histogram.
+   */
+
+  public LatencyHistogram getMoveLatency() {
+    return moveLatency;
+  }
+
+  /**
+   * Get the latency of the turns, from the moment a seat was asked to the moment its bid or play
+   * was applied, in nanoseconds.
+   * @return The histogram.
+   */
+
+  public LatencyHistogram getTurnLatency() {
+    return turnLatency;
+  }
+
+  public long getGames() {
+    return games.sum();
+  }
+
+  /**
+   * Get the number of bids and plays that were dropped because the mailbox of their table was
+   * full.
+   * @return The number of bids and plays.
+   */
+
+  public long getOverloads() {
+    return overloads.sum();
+  }
+
+  @Override
+  public void close() {
+    timer.shutdownNow();
+    pool.shutdownNow();
+  }
+
+  void execute(Runnable task) {
+    pool.execute(task);
+  }
+
+  ScheduledFuture<?> schedule(Runnable task) {
+    return timeoutMillis == 0 ? null : timer.schedule(task, timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  void finished() {
+    games.increment();
+  }
+
+  void overloaded() {
+    overloads.increment();
+  }
+}
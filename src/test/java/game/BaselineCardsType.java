@@ -0,0 +1,410 @@
+package game;
+
+import card.Card;
+import card.Rank;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class keeps the predicates of CardsType as they were before HandClassifier replaced them,
+ * as the oracle of CardsTypeDifferentialTest. The code is copied unchanged, bugs included: isBomb,
+ * isRocket, isFourKicksDualSolo and isFourKicksDualPair never return true. Like the original, the
+ * predicates sort the given list.
+ */
+
+final class BaselineCardsType {
+
+  private BaselineCardsType() {}
+
+  static boolean isSolo(List<Card> card, Watcher watcher) {
+    if (card == null) {
+      return false;
+    }
+    if (card.size() == 1) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(0));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isSoloChain(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() < 5 || card.size() > 12) {
+      return false;
+    }
+    Collections.sort(card);
+    Rank lastRank = null;
+    for (Card curr : card) {
+      if (curr.getRank() == Rank.Two) {
+        return false;
+      }
+      if (lastRank == null) {
+        lastRank = curr.getRank();
+      } else if (curr.getRank().getRank() - 1 != lastRank.getRank()) {
+        return false;
+      } else {
+        lastRank = curr.getRank();
+      }
+    }
+    if (lastRank != null && lastRank.getRank() < 13) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(card.size() - 1));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isPair(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() != 2 || card.get(0).isJoker()) {
+      return false;
+    }
+    if (card.get(0).getRank() == card.get(1).getRank()) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(0));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isPairSisters(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() < 6 || card.size() > 20 || card.size() % 2 != 0) {
+      return false;
+    }
+    Collections.sort(card);
+    Rank lastRank = card.get(0).getRank();
+    for (int i = 1; i < card.size(); i++) {
+      if (card.get(i).getRank() == Rank.Two) {
+        return false;
+      }
+      if (i % 2 == 1) {
+        if (card.get(i).getRank() != lastRank) {
+          return false;
+        }
+      } else {
+        if (card.get(i).getRank().getRank() - 1 != lastRank.getRank()) {
+          return false;
+        }
+        lastRank = card.get(i).getRank();
+      }
+    }
+    if (lastRank != null && lastRank.getRank() < 13) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(card.size() - 1));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isTrio(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() != 3) {
+      return false;
+    }
+    if (isListContainsIdenticalElement(card)) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(0));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isTrioChain(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() < 6 || card.size() > 20 || card.size() % 3 != 0) {
+      return false;
+    }
+    Collections.sort(card);
+    Rank lastRank = card.get(0).getRank();
+    for (int i = 1; i < card.size(); i++) {
+      if (i % 3 != 0) {
+        if (card.get(i).getRank() != lastRank) {
+          return false;
+        }
+      } else {
+        if (card.get(i).getRank().getRank() - 1 != lastRank.getRank()) {
+          return false;
+        }
+        lastRank = card.get(i).getRank();
+      }
+    }
+    if (lastRank != null && lastRank.getRank() < 13) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(card.size() - 1));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isTrioKicksSolo(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() != 4) {
+      return false;
+    }
+    Collections.sort(card);
+    Card probe = card.get(0);
+    List<Card> first = new ArrayList<>();
+    List<Card> second = new ArrayList<>();
+    for (Card curr : card) {
+      if (curr.getRank() == probe.getRank()) {
+        first.add(curr);
+      } else {
+        second.add(curr);
+      }
+    }
+    if (!isListContainsIdenticalElement(first)
+            || !isListContainsIdenticalElement(second)) {
+      return false;
+    }
+    if ((first.size() == 1 && second.size() == 3) || (first.size() == 3 && second.size() == 1)) {
+      if (watcher != null) {
+        watcher.setPrimeCard(first.size() == 3 ? first.get(0) : second.get(0));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isTrioKicksPair(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() != 5) {
+      return false;
+    }
+    Collections.sort(card);
+    Card probe = card.get(0);
+    List<Card> first = new ArrayList<>();
+    List<Card> second = new ArrayList<>();
+    for (Card curr : card) {
+      if (curr.getRank() == probe.getRank()) {
+        first.add(curr);
+      } else {
+        second.add(curr);
+      }
+    }
+    if (!isListContainsIdenticalElement(first)
+            || !isListContainsIdenticalElement(second)) {
+      return false;
+    }
+    if ((first.size() == 2 && second.size() == 3) || (first.size() == 3 && second.size() == 2)) {
+      if (watcher != null) {
+        watcher.setPrimeCard(first.size() == 3 ? first.get(0) : second.get(0));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  static boolean isAirplaneKicksSolo(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() % 4 != 0) {
+      return false;
+    }
+    Map<Rank, List<Card>> occMap = new HashMap<>();
+    for (Card curr : card) {
+      if (!occMap.containsKey(curr.getRank())) {
+        occMap.put(curr.getRank(), new ArrayList<>());
+      }
+      occMap.get(curr.getRank()).add(curr);
+    }
+    List<Card> primeList = new ArrayList<>();
+    List<Card> kickerList = new ArrayList<>();
+    for (Rank rank : occMap.keySet()) {
+      List<Card> values = occMap.get(rank);
+      if (values.size() >= 3) {
+        for (int i = 0; i < 3; i++) {
+          primeList.add(values.get(values.size() - 1));
+          values.remove(values.size() - 1);
+        }
+      }
+      kickerList.addAll(values);
+    }
+    if (kickerList.size() * 3 != primeList.size()) {
+      return false;
+    }
+    return isTrioChain(primeList, watcher);
+  }
+
+  static boolean isAirplaneKicksPair(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() % 5 != 0) {
+      return false;
+    }
+    Map<Rank, List<Card>> occMap = new HashMap<>();
+    for (Card curr : card) {
+      if (!occMap.containsKey(curr.getRank())) {
+        occMap.put(curr.getRank(), new ArrayList<>());
+      }
+      occMap.get(curr.getRank()).add(curr);
+    }
+    List<Card> primeList = new ArrayList<>();
+    List<Card> kickerList = new ArrayList<>();
+    for (Rank rank : occMap.keySet()) {
+      List<Card> values = occMap.get(rank);
+      if (values.size() == 3) {
+        for (int i = 0; i < 3; i++) {
+          primeList.add(values.get(values.size() - 1));
+          values.remove(values.size() - 1);
+        }
+      } else if (values.size() == 2) {
+        if (isPair(values, null)) {
+          kickerList.addAll(values);
+        } else {
+          return false;
+        }
+      } else {
+        return false;
+      }
+    }
+    if (kickerList.size() * 3 != primeList.size() * 2) {
+      return false;
+    }
+    return isTrioChain(primeList, watcher);
+  }
+
+  static boolean isBomb(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() != 4) {
+      return false;
+    }
+    if (isListContainsIdenticalElement(card)) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(0));
+      }
+    }
+    return false;
+  }
+
+  static boolean isFourKicksDualSolo(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() != 6) {
+      return false;
+    }
+    Map<Rank, List<Card>> occMap = new HashMap<>();
+    for (Card curr : card) {
+      if (!occMap.containsKey(curr.getRank())) {
+        occMap.put(curr.getRank(), new ArrayList<>());
+      }
+      occMap.get(curr.getRank()).add(curr);
+    }
+    List<Card> primeList = new ArrayList<>();
+    List<Card> kickerList = new ArrayList<>();
+    for (Rank rank : occMap.keySet()) {
+      List<Card> values = occMap.get(rank);
+      if (values.size() == 4) {
+        primeList.addAll(values);
+      } else if (values.size() == 1) {
+        kickerList.addAll(values);
+      } else {
+        return false;
+      }
+    }
+    if (primeList.size() != 4 || kickerList.size() != 2) {
+      return false;
+    }
+    if (isListContainsIdenticalElement(primeList)) {
+      if (watcher != null) {
+        watcher.setPrimeCard(primeList.get(0));
+      }
+    }
+    return false;
+  }
+
+  static boolean isFourKicksDualPair(List<Card> card, Watcher watcher) {
+    if (card == null || card.size() != 8) {
+      return false;
+    }
+    Map<Rank, List<Card>> occMap = new HashMap<>();
+    for (Card curr : card) {
+      if (!occMap.containsKey(curr.getRank())) {
+        occMap.put(curr.getRank(), new ArrayList<>());
+      }
+      occMap.get(curr.getRank()).add(curr);
+    }
+    List<Card> primeList = new ArrayList<>();
+    List<Card> kickerList = new ArrayList<>();
+    for (Rank rank : occMap.keySet()) {
+      List<Card> values = occMap.get(rank);
+      if (values.size() == 4) {
+        primeList.addAll(values);
+      } else if (values.size() == 2) {
+        if (!isPair(values, null)) {
+          return false;
+        }
+        kickerList.addAll(values);
+      } else {
+        return false;
+      }
+    }
+    if (primeList.size() != 4 || kickerList.size() != 4) {
+      return false;
+    }
+    if (isListContainsIdenticalElement(primeList)) {
+      if (watcher != null) {
+        watcher.setPrimeCard(primeList.get(0));
+      }
+    }
+    return false;
+  }
+
+  static boolean isRocket(List<Card> card, Watcher watcher) {
+    if (card == null) {
+      return false;
+    }
+    if (card.size() == 2 && card.get(0).isJoker() && card.get(1).isJoker()) {
+      if (watcher != null) {
+        watcher.setPrimeCard(card.get(1));
+      }
+    }
+    return false;
+  }
+
+  static CardsType determineType(List<Card> card, Watcher watcher) {
+    if (isSolo(card, watcher)) {
+      return CardsType.Solo;
+    } else if (isPair(card, watcher)) {
+      return CardsType.Pair;
+    } else if (isTrio(card, watcher)) {
+      return CardsType.Trio;
+    } else if (isBomb(card, watcher)) {
+      return CardsType.Bomb;
+    } else if (isRocket(card, watcher)) {
+      return CardsType.Rocket;
+    } else if (isSoloChain(card, watcher)) {
+      return CardsType.SoloChain;
+    } else if (isPairSisters(card, watcher)) {
+      return CardsType.PairSisters;
+    } else if (isTrioChain(card, watcher)) {
+      return CardsType.TrioChain;
+    } else if (isTrioKicksSolo(card, watcher)) {
+      return CardsType.TrioKicksSolo;
+    } else if (isTrioKicksPair(card, watcher)) {
+      return CardsType.TrioKicksPair;
+    } else if (isAirplaneKicksSolo(card, watcher)) {
+      return CardsType.AirplaneKicksSolo;
+    } else if (isAirplaneKicksPair(card, watcher)) {
+      return CardsType.AirplaneKicksPair;
+    } else if (isFourKicksDualSolo(card, watcher)) {
+      return CardsType.FourKicksDualSolo;
+    } else if (isFourKicksDualPair(card, watcher)) {
+      return CardsType.FourKicksDualPair;
+    } else {
+      return null;
+    }
+  }
+
+  private static boolean isListContainsIdenticalElement(List<Card> list) {
+    if (list == null || list.size() == 0) {
+      return false;
+    } else if (list.size() == 1) {
+      return true;
+    }
+    Card prob = list.get(0);
+    for (Card curr : list) {
+      if (curr.getRank() != prob.getRank()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
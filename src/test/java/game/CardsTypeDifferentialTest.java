@@ -0,0 +1,200 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import card.Card;
+import card.CardSet;
+import card.Rank;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The test runs the predicates of CardsType as they were before HandClassifier (BaselineCardsType)
+ * against HandClassifier.classify and CardsType.determineType. Both must agree on the type and the
+ * prime rank of every play, except for the plays that the old predicates could never recognise:
+ * a Bomb, the Rocket, and a Four with two Solo or two Pair kickers. Those verdicts were changed on
+ * purpose, and each of them is pinned by a test of its own.
+ */
+
+class CardsTypeDifferentialTest {
+
+  private static final Set<CardsType> NEVER_RECOGNISED = EnumSet.of(CardsType.Bomb,
+          CardsType.Rocket, CardsType.FourKicksDualSolo, CardsType.FourKicksDualPair);
+  private static final int RANKS = HandClassifier.RANKS;
+  private static final int LOWER_JOKER = Rank.LowerJoker.ordinal();
+
+  @Test
+  void agreesOnEveryShapeOfUpToEightCards() {
+    int[] counts = new int[RANKS];
+    int[] changed = new int[1];
+    everyShape(counts, 0, 0, 8, changed);
+    assertTrue(changed[0] > 0, "No Bomb or Four with kickers was enumerated.");
+  }
+
+  @Test
+  void agreesOnRandomPlays() {
+    SplittableRandom random = new SplittableRandom(1);
+    for (int i = 0; i < 200_000; i++) {
+      int size = 1 + random.nextInt(HandClassifier.MAX_PLAY_SIZE);
+      long mask = 0L;
+      while (Long.bitCount(mask) < size) {
+        mask |= 1L << random.nextInt(Card.COUNT);
+      }
+      check(CardSet.of(mask).toList());
+    }
+  }
+
+  @Test
+  void agreesOnRandomChainsAndAirplanes() {
+    SplittableRandom random = new SplittableRandom(2);
+    for (int i = 0; i < 200_000; i++) {
+      int[] counts = new int[RANKS];
+      int width = 1 + random.nextInt(3);
+      int length = 1 + random.nextInt(12);
+      int low = random.nextInt(RANKS - length + 1);
+      for (int r = low; r < low + length; r++) {
+        counts[r] = Math.min(width, capacity(r));
+      }
+      int size = sum(counts);
+      int kickers = random.nextInt(Math.max(1, 2 * length + 1));
+      for (int k = 0; k < kickers && size < HandClassifier.MAX_PLAY_SIZE; k++) {
+        int r = random.nextInt(RANKS);
+        if (counts[r] < capacity(r)) {
+          counts[r]++;
+          size++;
+        }
+      }
+      check(play(counts));
+    }
+  }
+
+  @Test
+  void bombIsRecognised() {
+    List<Card> play = play(Rank.Seven, 4);
+    assertNull(BaselineCardsType.determineType(new ArrayList<>(play), null));
+    assertClassified(CardsType.Bomb, Rank.Seven, play);
+  }
+
+  @Test
+  void rocketIsRecognised() {
+    List<Card> play = List.of(Card.ofOrdinal(52), Card.ofOrdinal(53));
+    assertNull(BaselineCardsType.determineType(new ArrayList<>(play), null));
+    assertClassified(CardsType.Rocket, Rank.HigherJoker, play);
+  }
+
+  @Test
+  void fourKicksDualSoloIsRecognised() {
+    List<Card> play = play(Rank.Five, 4);
+    play.addAll(play(Rank.Three, 1));
+    play.addAll(play(Rank.Nine, 1));
+    assertNull(BaselineCardsType.determineType(new ArrayList<>(play), null));
+    assertClassified(CardsType.FourKicksDualSolo, Rank.Five, play);
+  }
+
+  @Test
+  void fourKicksDualSoloAcceptsKickersOfTheSameRank() {
+    List<Card> play = play(Rank.Five, 4);
+    play.addAll(play(Rank.Nine, 2));
+    assertNull(BaselineCardsType.determineType(new ArrayList<>(play), null));
+    assertClassified(CardsType.FourKicksDualSolo, Rank.Five, play);
+  }
+
+  @Test
+  void fourKicksDualSoloAcceptsTheJokersAsKickers() {
+    List<Card> play = play(Rank.Two, 4);
+    play.add(Card.ofOrdinal(52));
+    play.add(Card.ofOrdinal(53));
+    assertNull(BaselineCardsType.determineType(new ArrayList<>(play), null));
+    assertClassified(CardsType.FourKicksDualSolo, Rank.Two, play);
+  }
+
+  @Test
+  void fourKicksDualPairIsRecognised() {
+    List<Card> play = play(Rank.Ace, 4);
+    play.addAll(play(Rank.Four, 2));
+    play.addAll(play(Rank.Jack, 2));
+    assertNull(BaselineCardsType.determineType(new ArrayList<>(play), null));
+    assertClassified(CardsType.FourKicksDualPair, Rank.Ace, play);
+  }
+
+  private static void everyShape(int[] counts, int rank, int size, int max, int[] changed) {
+    if (rank == RANKS) {
+      if (size > 0 && check(play(counts))) {
+        changed[0]++;
+      }
+      return;
+    }
+    for (int c = 0; c <= capacity(rank) && size + c <= max; c++) {
+      counts[rank] = c;
+      everyShape(counts, rank + 1, size + c, max, changed);
+    }
+    counts[rank] = 0;
+  }
+
+  /**
+   * The method compares the verdicts on a play.
+   * @return True if the play is one whose verdict was changed on purpose.
+   */
+
+  private static boolean check(List<Card> play) {
+    Watcher old = new Watcher();
+    CardsType expected = BaselineCardsType.determineType(new ArrayList<>(play), old);
+    int code = HandClassifier.classify(HandClassifier.signature(play), play.size());
+    CardsType actual = HandClassifier.typeOf(code);
+    assertEquals(actual, CardsType.determineType(play), play::toString);
+    if (expected == null && NEVER_RECOGNISED.contains(actual)) {
+      return true;
+    }
+    assertEquals(expected, actual, play::toString);
+    if (expected != null) {
+      assertEquals(old.getPrimeCard().getRank(), HandClassifier.primeRankOf(code),
+              play::toString);
+    }
+    return false;
+  }
+
+  private static void assertClassified(CardsType type, Rank prime, List<Card> play) {
+    int code = HandClassifier.classify(HandClassifier.signature(play), play.size());
+    assertEquals(type, HandClassifier.typeOf(code));
+    assertEquals(prime, HandClassifier.primeRankOf(code));
+    Watcher watcher = new Watcher();
+    assertEquals(type, CardsType.determineType(play, watcher));
+    assertEquals(prime, watcher.getPrimeCard().getRank());
+  }
+
+  private static List<Card> play(Rank rank, int count) {
+    int[] counts = new int[RANKS];
+    counts[rank.ordinal()] = count;
+    return play(counts);
+  }
+
+  private static List<Card> play(int[] counts) {
+    List<Card> play = new ArrayList<>();
+    for (int r = 0; r < RANKS; r++) {
+      for (int i = 0; i < counts[r]; i++) {
+        play.add(Card.ofOrdinal(r < LOWER_JOKER ? r * 4 + i : 52 + r - LOWER_JOKER));
+      }
+    }
+    return play;
+  }
+
+  private static int capacity(int rank) {
+    return rank >= LOWER_JOKER ? 1 : 4;
+  }
+
+  private static int sum(int[] counts) {
+    int sum = 0;
+    for (int c : counts) {
+      sum += c;
+    }
+    return sum;
+  }
+}
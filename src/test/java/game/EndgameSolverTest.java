@@ -0,0 +1,71 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The test checks EndgameSolver on small positions, where a solver without a table history is the
+ * reference: a solver that is reused across positions must give the same results, whoever the
+ * landlord is, and the move it finds must win.
+ */
+
+class EndgameSolverTest {
+
+  @Test
+  void reusedSolverTellsTheLandlordsApart() {
+    EndgameSolver solver = new EndgameSolver(12);
+    long[] hands = {1L, 1L << 4, 1L << 8};
+    assertEquals(EndgameSolver.LANDLORD, solver.solve(new Position(hands, 0, 0, 0L, -1)));
+    assertEquals(EndgameSolver.PEASANTS, solver.solve(new Position(hands, 1, 0, 0L, -1)));
+    assertEquals(EndgameSolver.PEASANTS, solver.solve(new Position(hands, 2, 0, 0L, -1)));
+    assertEquals(EndgameSolver.LANDLORD, solver.solve(new Position(hands, 0, 0, 0L, -1)));
+  }
+
+  @Test
+  void reusedSolverAgreesWithFreshSolvers() {
+    EndgameSolver reused = new EndgameSolver(10);
+    SplittableRandom random = new SplittableRandom(11);
+    for (int i = 0; i < 2000; i++) {
+      long[] hands = deal(random, 1 + random.nextInt(4));
+      int turn = random.nextInt(GameState.SEATS);
+      for (int landlord = 0; landlord < GameState.SEATS; landlord++) {
+        Position position = new Position(hands, landlord, turn, 0L, -1);
+        int expected = new EndgameSolver(10).solve(position);
+        assertEquals(expected, reused.solve(position), position::toString);
+        long move = reused.winningMove(position, Long.MAX_VALUE);
+        if (reused.canWin(position)) {
+          assertNotEquals(EndgameSolver.NO_MOVE, move, position::toString);
+          Position child = position.copy();
+          child.play(move);
+          assertEquals(expected, new EndgameSolver(10).solve(child), position::toString);
+        } else {
+          assertEquals(EndgameSolver.NO_MOVE, move, position::toString);
+        }
+      }
+    }
+  }
+
+  /**
+   * The method deals a few cards to each seat from a small range of ranks, so that the hands can
+   * play over each other.
+   */
+
+  private static long[] deal(SplittableRandom random, int cards) {
+    long[] hands = new long[GameState.SEATS];
+    long dealt = 0L;
+    for (int seat = 0; seat < GameState.SEATS; seat++) {
+      while (Long.bitCount(hands[seat]) < cards) {
+        long card = 1L << random.nextInt(24);
+        if ((dealt & card) == 0L) {
+          hands[seat] |= card;
+          dealt |= card;
+        }
+      }
+    }
+    return hands;
+  }
+}
@@ -0,0 +1,198 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import card.CardSet;
+import card.Deck;
+import card.Rank;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The test compares the implementations of HandFeatures with a reference that counts the cards of
+ * a hand one by one. The batch sizes are odd, so whatever the number of lanes of the CPU, each
+ * batch ends with hands that are left to the scalar code. The build runs the test twice, with and
+ * without --add-modules jdk.incubator.vector; the vectorized implementation is only tested in the
+ * first run, and only reached through HandFeatures.getInstance(), so the test class loads without
+ * the module.
+ */
+
+class HandFeaturesTest {
+
+  private static final int[] BATCHES = {1, 3, 7, 9, 15, 17, 31, 33, 1023, 4099};
+  private static final boolean VECTOR =
+          ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+  @Test
+  void getInstanceFollowsTheModule() {
+    if (VECTOR) {
+      assertNotSame(ScalarHandFeatures.INSTANCE, HandFeatures.getInstance());
+    } else {
+      assertSame(ScalarHandFeatures.INSTANCE, HandFeatures.getInstance());
+    }
+  }
+
+  @Test
+  void scalarMatchesTheReference() {
+    assertMatches(ScalarHandFeatures.INSTANCE);
+  }
+
+  @Test
+  void vectorMatchesTheReference() {
+    assumeTrue(VECTOR, "The Vector API module is not present.");
+    assertMatches(HandFeatures.getInstance());
+  }
+
+  @Test
+  void ofMatchesTheReference() {
+    SplittableRandom random = new SplittableRandom(3);
+    for (int i = 0; i < 100_000; i++) {
+      long mask = random.nextLong() & CardSet.FULL_MASK;
+      assertEquals(reference(mask), HandFeatures.of(mask), () -> CardSet.of(mask).toString());
+    }
+  }
+
+  @Test
+  void specialHandsHaveTheirFeatures() {
+    long[] special = specialHands();
+    assertFeatures(special[0], 17, 1, 12, 1);
+    assertFeatures(special[1], 20, 1, 12, 2);
+    assertFeatures(special[2], 17, 1, 12, 1);
+    assertEquals(10, HandFeatures.get(HandFeatures.of(special[3]), HandFeatures.PAIR_CHAIN));
+    assertEquals(6, HandFeatures.get(HandFeatures.of(special[4]), HandFeatures.TRIO_CHAIN));
+  }
+
+  private static void assertFeatures(long mask, int size, int rocket, int soloChain, int trios) {
+    long features = HandFeatures.of(mask);
+    assertEquals(size, HandFeatures.get(features, HandFeatures.SIZE));
+    assertEquals(rocket, HandFeatures.get(features, HandFeatures.ROCKET));
+    assertEquals(soloChain, HandFeatures.get(features, HandFeatures.SOLO_CHAIN));
+    assertEquals(trios, HandFeatures.get(features, HandFeatures.TRIOS));
+  }
+
+  private static void assertMatches(HandFeatures features) {
+    long[] special = specialHands();
+    SplittableRandom random = new SplittableRandom(4);
+    Deck deck = Deck.create(new SplittableRandom(5));
+    long[] dealt = new long[4];
+    int total = 0;
+    for (int round = 0; total < 100_000; round++) {
+      for (int count : BATCHES) {
+        long[] masks = new long[count + 2];
+        for (int i = 0; i < masks.length; i++) {
+          if (round % 2 == 0) {
+            masks[i] = random.nextLong() & CardSet.FULL_MASK;
+          } else {
+            deck.reset();
+            deck.dealCardForThreePlayer(dealt);
+            masks[i] = i % 2 == 0 ? dealt[0] : dealt[1] | dealt[3];
+          }
+        }
+        for (int i = 0; i < special.length; i++) {
+          masks[(round * 7 + i * 5) % count] = special[i];
+        }
+        assertBatch(features, masks, count);
+        total += count;
+      }
+    }
+  }
+
+  private static void assertBatch(HandFeatures features, long[] masks, int count) {
+    long[] signatures = new long[masks.length];
+    long[] packed = new long[masks.length];
+    features.signatures(masks, signatures, count);
+    features.features(masks, packed, count);
+    for (int i = 0; i < count; i++) {
+      long mask = masks[i];
+      assertEquals(signature(mask), signatures[i], () -> CardSet.of(mask).toString());
+      assertEquals(reference(mask), packed[i], () -> CardSet.of(mask).toString());
+    }
+    for (int i = count; i < masks.length; i++) {
+      assertEquals(0L, signatures[i], "A batch must not write past its count.");
+      assertEquals(0L, packed[i], "A batch must not write past its count.");
+    }
+  }
+
+  /**
+   * The method builds hands of 17 and 20 cards that hold the Rocket, and runs of 12 ranks.
+   */
+
+  private static long[] specialHands() {
+    long jokers = 3L << 52;
+    long soloRun = 0L;
+    for (int r = Rank.Three.ordinal(); r <= Rank.Ace.ordinal(); r++) {
+      soloRun |= 1L << (r * 4 + r % 4);
+    }
+    long twos = CardSet.rankMask(Rank.Two);
+    long threes = CardSet.rankMask(Rank.Three);
+    long pairRun = 0L;
+    for (int r = Rank.Five.ordinal(); r <= Rank.Ace.ordinal(); r++) {
+      pairRun |= 3L << (r * 4);
+    }
+    long trioRun = 0L;
+    for (int r = Rank.Eight.ordinal(); r <= Rank.King.ordinal(); r++) {
+      trioRun |= 7L << (r * 4);
+    }
+    return new long[] {
+        soloRun | jokers | threes & ~soloRun & 3L << 1 | 1L << 7,
+        soloRun | jokers | twos | threes & ~soloRun & 3L << 1,
+        soloRun | jokers | twos & 7L << (Rank.Two.ordinal() * 4),
+        pairRun,
+        trioRun | jokers,
+        CardSet.FULL_MASK,
+        jokers,
+        0L,
+    };
+  }
+
+  private static long signature(long mask) {
+    long signature = 0L;
+    for (int card = 0; card < CardSet.DECK_SIZE; card++) {
+      if ((mask & 1L << card) != 0) {
+        signature += 1L << (rank(card) << 2);
+      }
+    }
+    return signature;
+  }
+
+  private static long reference(long mask) {
+    int[] counts = new int[HandClassifier.RANKS];
+    int size = 0;
+    for (int card = 0; card < CardSet.DECK_SIZE; card++) {
+      if ((mask & 1L << card) != 0) {
+        counts[rank(card)]++;
+        size++;
+      }
+    }
+    long features = (long) size << HandFeatures.SIZE;
+    for (int k = 1; k <= 4; k++) {
+      int ranks = 0;
+      int run = 0;
+      int longest = 0;
+      for (int r = 0; r < HandClassifier.RANKS; r++) {
+        if (counts[r] >= k) {
+          ranks++;
+        }
+        run = r < Rank.Two.ordinal() && counts[r] >= k ? run + 1 : 0;
+        longest = Math.max(longest, run);
+      }
+      features |= (long) ranks << (HandFeatures.RANKS + 6 * (k - 1));
+      if (k < 4) {
+        features |= (long) longest << (HandFeatures.SOLO_CHAIN + 6 * (k - 1));
+      }
+    }
+    if (counts[Rank.LowerJoker.ordinal()] == 1 && counts[Rank.HigherJoker.ordinal()] == 1) {
+      features |= 1L << HandFeatures.ROCKET;
+    }
+    return features;
+  }
+
+  private static int rank(int card) {
+    return card < 52 ? card / 4 : card - 52 + Rank.LowerJoker.ordinal();
+  }
+}
@@ -0,0 +1,40 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The test plays games between IsmctsStrategy seats with a time limit only, on an executor that
+ * runs each worker on the calling thread once the deadline has passed. Every worker then finds
+ * the time spent before its first iteration, and the strategy must still play a move when it
+ * leads.
+ */
+
+class IsmctsStrategyTest {
+
+  private static final long MILLIS = 1;
+
+  @Test
+  void timeLimitPastTheDeadlineStillPlays() {
+    Executor late = command -> {
+      try {
+        Thread.sleep(2 * MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      command.run();
+    };
+    for (int game = 0; game < 3; game++) {
+      long seed = BatchRunner.gameSeed(7L, game);
+      GameEngine engine = new GameEngine(new IsmctsStrategy(0, MILLIS, 2, seed, late),
+              new IsmctsStrategy(0, MILLIS, 2, seed + 1, late),
+              new IsmctsStrategy(0, MILLIS, 2, seed + 2, late), new SplittableRandom(seed));
+      GameEngine.Result result = engine.play();
+      assertTrue(engine.getState().getHand(result.getWinner()).isEmpty());
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import card.CardSet;
+import card.Deck;
+import card.Rank;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The test compares MoveGenerator with a brute force over every subset of a hand up to suits, that
+ * is every choice of 0 to n cards of each rank the hand holds n of. A subset is a legal move if
+ * HandClassifier accepts it and it beats the last play by HandClassifier.beats(). The generator
+ * must produce each legal subset exactly once, as the lowest cards of each of its ranks, and
+ * nothing else. The kicker types get tests of their own, with hands that hold many kicker choices.
+ */
+
+class MoveGeneratorTest {
+
+  private static final int RANKS = HandClassifier.RANKS;
+  private static final Set<CardsType> KICKERS = EnumSet.of(CardsType.TrioKicksSolo,
+          CardsType.TrioKicksPair, CardsType.AirplaneKicksSolo, CardsType.AirplaneKicksPair,
+          CardsType.FourKicksDualSolo, CardsType.FourKicksDualPair);
+
+  private final MoveGenerator generator = new MoveGenerator();
+
+  @Test
+  void agreesWithBruteForceOnRandomHands() {
+    Deck deck = Deck.create(new SplittableRandom(5));
+    SplittableRandom random = new SplittableRandom(6);
+    long[] dealt = new long[4];
+    Set<CardsType> followed = EnumSet.noneOf(CardsType.class);
+    for (int i = 0; i < 1500; i++) {
+      deck.reset();
+      deck.dealCardForThreePlayer(dealt);
+      long hand = i % 3 == 0 ? dealt[0] | dealt[3] : dealt[0];
+      assertSameMoves(hand, 0L);
+      List<Long> leads = moves(dealt[1] | dealt[3], 0L);
+      for (int k = 0; k < 3; k++) {
+        assertSameMoves(hand, leads.get(random.nextInt(leads.size())));
+      }
+      Set<CardsType> types = EnumSet.noneOf(CardsType.class);
+      for (long lead : leads) {
+        CardsType type = typeOf(lead);
+        if (KICKERS.contains(type) && types.add(type)) {
+          assertSameMoves(hand, lead);
+          followed.add(type);
+        }
+      }
+    }
+    assertEquals(KICKERS, followed);
+  }
+
+  @Test
+  void followsTrioKicksSolo() {
+    long hand = cards(Rank.Four, 3) | cards(Rank.Nine, 4) | cards(Rank.Ace, 3) | cards(Rank.Two, 2)
+            | cards(Rank.LowerJoker, 1) | cards(Rank.HigherJoker, 1);
+    long last = cards(Rank.Three, 3) | cards(Rank.Five, 1);
+    assertSameMoves(hand, last);
+    assertTrue(moves(hand, last).contains(cards(Rank.Nine, 3) | cards(Rank.Two, 1)));
+  }
+
+  @Test
+  void followsAirplaneKicksPair() {
+    long hand = cards(Rank.Five, 3) | cards(Rank.Six, 3) | cards(Rank.Seven, 4)
+            | cards(Rank.Jack, 2) | cards(Rank.Queen, 4) | cards(Rank.Two, 2);
+    long last = cards(Rank.Three, 3) | cards(Rank.Four, 3) | cards(Rank.Eight, 2)
+            | cards(Rank.Ten, 2);
+    assertSameMoves(hand, last);
+    List<Long> moves = moves(hand, last);
+    assertTrue(moves.contains(cards(Rank.Six, 3) | cards(Rank.Seven, 3) | cards(Rank.Jack, 2)
+            | cards(Rank.Two, 2)));
+    assertTrue(moves.contains(cards(Rank.Five, 3) | cards(Rank.Six, 3) | cards(Rank.Queen, 2)
+            | cards(Rank.Two, 2)));
+    assertFalse(moves.contains(cards(Rank.Six, 3) | cards(Rank.Seven, 3) | cards(Rank.Queen, 4)));
+  }
+
+  @Test
+  void followsFourKicksDualSolo() {
+    long hand = cards(Rank.Six, 4) | cards(Rank.Eight, 2) | cards(Rank.King, 4)
+            | cards(Rank.LowerJoker, 1) | cards(Rank.HigherJoker, 1);
+    long last = cards(Rank.Five, 4) | cards(Rank.Three, 1) | cards(Rank.Ten, 1);
+    assertSameMoves(hand, last);
+    List<Long> moves = moves(hand, last);
+    assertTrue(moves.contains(cards(Rank.Six, 4) | cards(Rank.Eight, 2)));
+    assertTrue(moves.contains(cards(Rank.King, 4) | cards(Rank.LowerJoker, 1)
+            | cards(Rank.HigherJoker, 1)));
+  }
+
+  @Test
+  void followsFourKicksDualPair() {
+    long hand = cards(Rank.Seven, 4) | cards(Rank.Eight, 2) | cards(Rank.Jack, 4)
+            | cards(Rank.Queen, 2) | cards(Rank.Two, 2);
+    long last = cards(Rank.Six, 4) | cards(Rank.Three, 2) | cards(Rank.Four, 2);
+    assertSameMoves(hand, last);
+    List<Long> moves = moves(hand, last);
+    assertTrue(moves.contains(cards(Rank.Jack, 4) | cards(Rank.Queen, 2) | cards(Rank.Two, 2)));
+    assertFalse(moves.contains(cards(Rank.Seven, 4) | cards(Rank.Jack, 4)));
+  }
+
+  @Test
+  void fillsTheFirstMovesOfTheVisitor() {
+    Deck deck = Deck.create(new SplittableRandom(7));
+    long[] dealt = new long[4];
+    deck.reset();
+    deck.dealCardForThreePlayer(dealt);
+    List<Long> all = moves(dealt[0], 0L);
+    long[] first = new long[5];
+    assertEquals(first.length, generator.generate(dealt[0], 0L, first));
+    long[] expected = new long[first.length];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = all.get(i);
+    }
+    assertArrayEquals(expected, first);
+    int[] seen = new int[1];
+    assertEquals(3, generator.generate(dealt[0], 0L, move -> ++seen[0] < 3));
+  }
+
+  private void assertSameMoves(long hand, long last) {
+    int lastKey = last == 0L ? HandClassifier.NO_PLAY
+            : HandClassifier.strengthOf(ShapeTable.getInstance().lookup(
+                    CardSet.rankSignature(last)), Long.bitCount(last));
+    Set<Long> expected = new HashSet<>();
+    subsets(CardSet.rankSignature(hand), 0, 0L, 0, lastKey, expected);
+    Set<Long> actual = new HashSet<>();
+    for (long move : moves(hand, last)) {
+      assertEquals(0L, move & ~hand, "A move must be taken from the hand.");
+      for (int r = 0; r < RANKS; r++) {
+        long cards = move & CardSet.rankMask(r);
+        assertEquals(lowest(hand & CardSet.rankMask(r), Long.bitCount(cards)), cards,
+                "A move must take the lowest cards of each rank.");
+      }
+      assertTrue(actual.add(CardSet.rankSignature(move)),
+              () -> "The move " + CardSet.of(move) + " is generated twice.");
+    }
+    assertEquals(expected, actual, () -> "Hand " + CardSet.of(hand) + ", last "
+            + CardSet.of(last));
+  }
+
+  private static void subsets(long hand, int rank, long signature, int size, int lastKey,
+                              Set<Long> moves) {
+    if (rank == RANKS) {
+      int code = HandClassifier.classify(signature, size);
+      if (size > 0 && HandClassifier.beats(HandClassifier.strengthOf(code, size), lastKey)) {
+        moves.add(signature);
+      }
+      return;
+    }
+    for (int c = 0; c <= HandClassifier.count(hand, rank); c++) {
+      subsets(hand, rank + 1, signature + ((long) c << (rank << 2)), size + c, lastKey, moves);
+    }
+  }
+
+  private List<Long> moves(long hand, long last) {
+    List<Long> moves = new ArrayList<>();
+    generator.generate(hand, last, move -> moves.add(move));
+    return moves;
+  }
+
+  private static CardsType typeOf(long move) {
+    return HandClassifier.typeOf(ShapeTable.getInstance().lookup(CardSet.rankSignature(move)));
+  }
+
+  private static long lowest(long cards, int count) {
+    long result = 0L;
+    for (int i = 0; i < count; i++) {
+      long bit = cards & -cards;
+      result |= bit;
+      cards ^= bit;
+    }
+    return result;
+  }
+
+  private static long cards(Rank rank, int count) {
+    return lowest(CardSet.rankMask(rank), count);
+  }
+}
@@ -0,0 +1,91 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import card.Rank;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The test checks that ShapeTable agrees with HandClassifier on every rank signature a play can
+ * have, that is every count from 0 to 4 of each regular rank and 0 or 1 of each Joker, up to 20
+ * cards. That includes the airplanes of 4 and 5 Trios with their kickers, and the Fours with
+ * kickers, at every size up to the landlord's starting hand. The walk over the half billion
+ * signatures is split by the counts of the two lowest ranks, and takes about 40 seconds on a
+ * single core.
+ */
+
+class ShapeTableTest {
+
+  private static final int RANKS = HandClassifier.RANKS;
+  private static final int LOWER_JOKER = Rank.LowerJoker.ordinal();
+
+  private final ShapeTable table = ShapeTable.getInstance();
+
+  @Test
+  void agreesWithTheClassifierOnEverySignature() {
+    long[] counts = IntStream.range(0, 25).parallel()
+            .mapToObj(prefix -> {
+              long[] tally = new long[2];
+              long signature = (long) (prefix % 5) | (long) (prefix / 5) << 4;
+              everySignature(2, signature, prefix % 5 + prefix / 5, tally);
+              return tally;
+            })
+            .reduce(new long[2], (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]});
+    assertEquals(509_430_670L - 1, counts[0]);
+    assertEquals(table.size(), counts[1]);
+  }
+
+  @Test
+  void holdsTheLargestAirplanes() {
+    long fiveTrios = 0L;
+    for (int r = Rank.Ten.ordinal(); r <= Rank.Ace.ordinal(); r++) {
+      fiveTrios += 3L << (r << 2);
+    }
+    long withSolos = fiveTrios + (1L << (LOWER_JOKER << 2)) + (1L << ((LOWER_JOKER + 1) << 2))
+            + (2L << (Rank.Three.ordinal() << 2)) + (1L << (Rank.Two.ordinal() << 2));
+    assertEquals(HandClassifier.encode(CardsType.AirplaneKicksSolo, Rank.Ace.ordinal()),
+            table.lookup(withSolos));
+    long fourTrios = fiveTrios - (3L << (Rank.Ten.ordinal() << 2));
+    long withPairs = fourTrios + (2L << (Rank.Three.ordinal() << 2))
+            + (2L << (Rank.Four.ordinal() << 2)) + (2L << (Rank.Five.ordinal() << 2))
+            + (2L << (Rank.Two.ordinal() << 2));
+    assertEquals(HandClassifier.encode(CardsType.AirplaneKicksPair, Rank.Ace.ordinal()),
+            table.lookup(withPairs));
+  }
+
+  @Test
+  void rebuildsTheSameTable() {
+    assertEquals(table.size(), ShapeTable.build().size());
+  }
+
+  /**
+   * The method walks every signature that extends the counts of the ranks below a rank, and counts
+   * the signatures and the valid ones into a tally.
+   */
+
+  private void everySignature(int rank, long signature, int size, long[] tally) {
+    if (rank == RANKS) {
+      if (size > 0) {
+        int expected = HandClassifier.classify(signature, size);
+        int actual = table.lookup(signature);
+        if (actual != expected) {
+          fail(String.format("Signature %x of %d cards: expected %d but was %d", signature, size,
+                  expected, actual));
+        }
+        tally[0]++;
+        if (expected != HandClassifier.INVALID) {
+          tally[1]++;
+        }
+      }
+      return;
+    }
+    int capacity = rank >= LOWER_JOKER ? 1 : 4;
+    for (int c = 0; c <= capacity && size + c <= HandClassifier.MAX_PLAY_SIZE; c++) {
+      everySignature(rank + 1, signature + ((long) c << (rank << 2)), size + c, tally);
+    }
+  }
+}